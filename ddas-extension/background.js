@@ -72,11 +72,13 @@ async function runDuplicateCheck(downloadId) {
             downloadInfo.contentLength = contentLength ? parseInt(contentLength, 10) : null;
             inProgressDownloads.set(downloadId, downloadInfo);
 
+            const settings = await getSettings();
             const checkRequest = {
                 originalUrl: downloadInfo.url,
                 etag: etag,
                 contentLength: contentLength ? parseInt(contentLength, 10) : null,
-                fileName: downloadInfo.filename
+                fileName: downloadInfo.filename,
+                downloaderId: settings.downloaderId
             };
 
             const serverResponse = await fetch(CHECK_URL, {
@@ -1,5 +1,6 @@
 package com.aman.ddas.server;
 
+import com.aman.ddas.server.startup.StartupTimingListener;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
@@ -40,7 +41,9 @@ public class DdasServerApplication {
 			}
 		}
 
-		SpringApplication.run(DdasServerApplication.class, args);
+		SpringApplication application = new SpringApplication(DdasServerApplication.class);
+		application.addListeners(new StartupTimingListener());
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,66 @@
+package com.aman.ddas.server.admission;
+
+/**
+ * Concurrency limit that adapts to observed latency (AIMD, as in TCP
+ * congestion control).
+ *
+ * While requests finish within the target latency and the limit is actually
+ * being used, the limit grows by about one per limit's worth of requests.
+ * When a request is slower than the target the limit is cut by the backoff
+ * ratio, at most once per target-latency period so that one burst of slow
+ * completions counts as a single congestion signal. Times are System.nanoTime() values.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+    private long lastDecrease;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos,
+            double backoffRatio, long nowNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecrease = nowNanos - targetLatencyNanos;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight < (int) limit) {
+            inFlight++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param latencyNanos how long the admitted request took
+     * @param nowNanos     System.nanoTime() at completion
+     */
+    public synchronized void release(long latencyNanos, long nowNanos) {
+        boolean wasBusy = inFlight * 2 >= (int) limit;
+        inFlight--;
+        if (latencyNanos > targetLatencyNanos) {
+            if (nowNanos - lastDecrease >= targetLatencyNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecrease = nowNanos;
+            }
+        } else if (wasBusy) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,47 @@
+package com.aman.ddas.server.admission;
+
+/**
+ * Classic token bucket: refills at a fixed rate up to a burst capacity, and
+ * each admitted request takes one token. Times are System.nanoTime() values.
+ */
+public class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double tokensPerSecond, double capacity, long nowNanos) {
+        this.tokensPerNano = tokensPerSecond / 1e9;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefill = nowNanos;
+    }
+
+    public synchronized boolean tryConsume(long nowNanos) {
+        refill(nowNanos);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /** Gives back a token taken for a request that was then not admitted after all. */
+    public synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    /** True when the bucket is full again, i.e. forgetting it changes nothing. */
+    public synchronized boolean isFull(long nowNanos) {
+        refill(nowNanos);
+        return tokens >= capacity;
+    }
+
+    private void refill(long nowNanos) {
+        if (nowNanos > lastRefill) {
+            tokens = Math.min(capacity, tokens + (nowNanos - lastRefill) * tokensPerNano);
+            lastRefill = nowNanos;
+        }
+    }
+}
@@ -1,17 +1,35 @@
 package com.aman.ddas.server.controller;
 
 import com.aman.ddas.server.dto.DashboardStatsResponse;
+import com.aman.ddas.server.dto.HeavyHittersResponse;
+import com.aman.ddas.server.dto.TrendResponse;
 import com.aman.ddas.server.model.DownloadedFile;
+import com.aman.ddas.server.model.UsageRollup;
 import com.aman.ddas.server.repository.BlockedDuplicateRepository;
 import com.aman.ddas.server.repository.DownloadedFileRepository;
+import com.aman.ddas.server.repository.UsageRollupRepository;
+import com.aman.ddas.server.service.HeavyHitterService;
+import com.aman.ddas.server.service.UsageRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 @RestController
@@ -21,11 +39,19 @@ public class DashboardController {
 
     private final DownloadedFileRepository repository;
     private final BlockedDuplicateRepository blockedRepository;
+    private final UsageRollupRepository rollupRepository;
+    private final HeavyHitterService heavyHitterService;
+
+    // Upper bound on the points in one trend response (93 days of hourly buckets)
+    private static final int MAX_TREND_BUCKETS = 2232;
 
     @Autowired
-    public DashboardController(DownloadedFileRepository repository, BlockedDuplicateRepository blockedRepository) {
+    public DashboardController(DownloadedFileRepository repository, BlockedDuplicateRepository blockedRepository,
+            UsageRollupRepository rollupRepository, HeavyHitterService heavyHitterService) {
         this.repository = repository;
         this.blockedRepository = blockedRepository;
+        this.rollupRepository = rollupRepository;
+        this.heavyHitterService = heavyHitterService;
     }
 
     @GetMapping("/stats")
@@ -74,6 +100,139 @@ public class DashboardController {
         return allFiles.stream().map(this::mapToDto).collect(Collectors.toList());
     }
 
+    /**
+     * Overall downloads, bytes, blocked duplicates and bytes saved per hour or day.
+     * Reads only the rollup table, so the cost depends on the range, not on the history size.
+     */
+    @GetMapping("/trends")
+    public TrendResponse getTrends(
+            @RequestParam(defaultValue = "HOUR") UsageRollup.Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime[] range = trendRange(granularity, from, to);
+        return toTrend(granularity, range, rollupRepository.sumByBucket(granularity,
+                UsageRollup.Dimension.DOWNLOADER, range[0], range[1]));
+    }
+
+    @GetMapping("/trends/downloaders/{downloaderId}")
+    public TrendResponse getDownloaderTrend(@PathVariable String downloaderId,
+            @RequestParam(defaultValue = "DAY") UsageRollup.Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime[] range = trendRange(granularity, from, to);
+        return toTrend(granularity, range, rollupRepository.findSeries(granularity,
+                UsageRollup.Dimension.DOWNLOADER, downloaderId, range[0], range[1]));
+    }
+
+    @GetMapping("/trends/desktops/{desktopId}")
+    public TrendResponse getDesktopTrend(@PathVariable String desktopId,
+            @RequestParam(defaultValue = "DAY") UsageRollup.Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime[] range = trendRange(granularity, from, to);
+        return toTrend(granularity, range, rollupRepository.findSeries(granularity,
+                UsageRollup.Dimension.DESKTOP, desktopId, range[0], range[1]));
+    }
+
+    /**
+     * Top downloaders or desktops in the range, e.g. most bytes saved per user this week.
+     * sort is one of downloads, bytesDownloaded, blockedDuplicates, bytesSaved.
+     */
+    @GetMapping("/trends/top")
+    public List<TrendResponse.TopEntry> getTopContributors(
+            @RequestParam(defaultValue = "DOWNLOADER") UsageRollup.Dimension dimension,
+            @RequestParam(defaultValue = "DAY") UsageRollup.Granularity granularity,
+            @RequestParam(defaultValue = "bytesSaved") String sort,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        Map<String, ToLongFunction<TrendResponse.TopEntry>> sortKeys = Map.of(
+                "downloads", TrendResponse.TopEntry::getDownloads,
+                "bytesDownloaded", TrendResponse.TopEntry::getBytesDownloaded,
+                "blockedDuplicates", TrendResponse.TopEntry::getBlockedDuplicates,
+                "bytesSaved", TrendResponse.TopEntry::getBytesSaved);
+        ToLongFunction<TrendResponse.TopEntry> sortKey = sortKeys.get(sort);
+        if (sortKey == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown sort: " + sort);
+        }
+
+        LocalDateTime[] range = trendRange(granularity, from, to);
+        return rollupRepository.sumByDimensionKey(granularity, dimension, range[0], range[1]).stream()
+                .map(totals -> {
+                    TrendResponse.TopEntry entry = new TrendResponse.TopEntry();
+                    entry.setKey(totals.getDimensionKey());
+                    entry.setDownloads(totals.getDownloads());
+                    entry.setBytesDownloaded(totals.getBytesDownloaded());
+                    entry.setBlockedDuplicates(totals.getBlockedDuplicates());
+                    entry.setBytesSaved(totals.getBytesSaved());
+                    return entry;
+                })
+                .sorted(Comparator.comparingLong(sortKey).reversed())
+                .limit(Math.max(1, limit))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Most-duplicated files and most frequent duplicate downloaders over a
+     * sliding HOUR, DAY or WEEK window, served from in-memory sketches.
+     */
+    @GetMapping("/heavy-hitters")
+    public HeavyHittersResponse getHeavyHitters(
+            @RequestParam(defaultValue = "DAY") HeavyHitterService.Window window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return heavyHitterService.getHeavyHitters(window, Math.max(1, Math.min(100, limit)));
+    }
+
+    /**
+     * Aligns the requested range to bucket boundaries. Defaults to the last
+     * 24 hours for hourly and the last 30 days for daily buckets.
+     */
+    private LocalDateTime[] trendRange(UsageRollup.Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        boolean hourly = granularity == UsageRollup.Granularity.HOUR;
+        LocalDateTime end = UsageRollupService.bucketStart(granularity, to != null ? to : LocalDateTime.now());
+        end = hourly ? end.plusHours(1) : end.plusDays(1);
+        LocalDateTime start = from != null
+                ? UsageRollupService.bucketStart(granularity, from)
+                : (hourly ? end.minusHours(24) : end.minusDays(30));
+
+        long buckets = hourly ? Duration.between(start, end).toHours()
+                : Duration.between(start, end).toDays();
+        if (buckets <= 0 || buckets > MAX_TREND_BUCKETS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Range must cover between 1 and " + MAX_TREND_BUCKETS + " buckets");
+        }
+        return new LocalDateTime[] { start, end };
+    }
+
+    private TrendResponse toTrend(UsageRollup.Granularity granularity, LocalDateTime[] range,
+            List<UsageRollupRepository.Totals> rows) {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        Map<LocalDateTime, UsageRollupRepository.Totals> byBucket = rows.stream()
+                .collect(Collectors.toMap(UsageRollupRepository.Totals::getBucketStart, Function.identity()));
+
+        List<TrendResponse.Point> points = new ArrayList<>();
+        for (LocalDateTime bucket = range[0]; bucket.isBefore(range[1]);
+                bucket = granularity == UsageRollup.Granularity.HOUR ? bucket.plusHours(1) : bucket.plusDays(1)) {
+            TrendResponse.Point point = new TrendResponse.Point();
+            point.setBucket(bucket.format(format));
+            UsageRollupRepository.Totals totals = byBucket.get(bucket);
+            if (totals != null) {
+                point.setDownloads(totals.getDownloads());
+                point.setBytesDownloaded(totals.getBytesDownloaded());
+                point.setBlockedDuplicates(totals.getBlockedDuplicates());
+                point.setBytesSaved(totals.getBytesSaved());
+            }
+            points.add(point);
+        }
+
+        TrendResponse response = new TrendResponse();
+        response.setGranularity(granularity.name());
+        response.setFrom(range[0].format(format));
+        response.setTo(range[1].format(format));
+        response.setPoints(points);
+        return response;
+    }
+
     private DashboardStatsResponse.RecentActivityDto mapToDto(DownloadedFile file) {
         DashboardStatsResponse.RecentActivityDto dto = new DashboardStatsResponse.RecentActivityDto();
         dto.setId(file.getId());
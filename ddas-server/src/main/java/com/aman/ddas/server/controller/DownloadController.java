@@ -3,8 +3,12 @@ package com.aman.ddas.server.controller;
 import com.aman.ddas.server.dto.DuplicateCheckRequest;
 import com.aman.ddas.server.dto.DuplicateCheckResponse;
 import com.aman.ddas.server.dto.LogFileRequest;
+import com.aman.ddas.server.loadtest.TraceRecorder;
 import com.aman.ddas.server.model.DownloadedFile;
+import com.aman.ddas.server.service.AdmissionControlService;
 import com.aman.ddas.server.service.DownloadCheckService;
+import com.aman.ddas.server.startup.WarmupRunner;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,19 +19,67 @@ import org.springframework.web.bind.annotation.*;
 public class DownloadController {
 
     private final DownloadCheckService service;
+    private final TraceRecorder traceRecorder;
+    private final AdmissionControlService admissionControl;
+    private final WarmupRunner warmupRunner;
 
     @Autowired
-    public DownloadController(DownloadCheckService service) {
+    public DownloadController(DownloadCheckService service, TraceRecorder traceRecorder,
+            AdmissionControlService admissionControl, WarmupRunner warmupRunner) {
         this.service = service;
+        this.traceRecorder = traceRecorder;
+        this.admissionControl = admissionControl;
+        this.warmupRunner = warmupRunner;
     }
 
     @PostMapping("/check")
-    public DuplicateCheckResponse checkDuplicate(@RequestBody DuplicateCheckRequest request) {
-        return service.checkForDuplicate(request);
+    public DuplicateCheckResponse checkDuplicate(@RequestBody DuplicateCheckRequest request,
+            HttpServletRequest httpRequest) {
+        if (warmupRunner.isWarmupRequest(httpRequest)) {
+            // Warm-up checks all come from localhost and are not real traffic: skip admission and the trace
+            return service.checkForDuplicate(request);
+        }
+        traceRecorder.recordCheck(request);
+        try (AdmissionControlService.Permit permit = admissionControl.tryAcquire(clientKey(request, httpRequest))) {
+            if (!permit.isAdmitted()) {
+                // Over capacity: answer right away from cache instead of waiting for a DB connection
+                DuplicateCheckResponse response = service.checkCachedOnly(request);
+                admissionControl.recordDegraded(response.isDuplicate());
+                traceRecorder.recordMatch(response.getFileInfo());
+                return response;
+            }
+            DuplicateCheckResponse response = service.checkForDuplicate(request);
+            traceRecorder.recordMatch(response.getFileInfo());
+            return response;
+        }
+    }
+
+    /**
+     * Rate-limit key for a check: the caller's address, split by downloader when
+     * the extension sends one so users behind one NAT keep separate buckets.
+     * Unconfigured extensions all send the same default id, so the id is never
+     * the key on its own. Behind the hosting proxy the remote address is the
+     * proxy's; the proxy appends the address it saw to X-Forwarded-For, so the
+     * right-most hop is used, as everything before it comes from the client.
+     */
+    private static String clientKey(DuplicateCheckRequest request, HttpServletRequest httpRequest) {
+        String address = httpRequest.getRemoteAddr();
+        String forwardedFor = httpRequest.getHeader("X-Forwarded-For");
+        if (forwardedFor != null) {
+            String lastHop = forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+            if (!lastHop.isEmpty()) {
+                address = lastHop;
+            }
+        }
+        if (request.getDownloaderId() != null && !request.getDownloaderId().isEmpty()) {
+            return "downloader:" + request.getDownloaderId() + "@" + address;
+        }
+        return "address:" + address;
     }
 
     @PostMapping("/log")
     public ResponseEntity<DownloadedFile> logNewFile(@RequestBody LogFileRequest request) {
+        traceRecorder.recordLog(request);
         DownloadedFile savedFile = service.logNewFile(request);
         // This ensures we always return a valid response that can be parsed as JSON
         if (savedFile != null) {
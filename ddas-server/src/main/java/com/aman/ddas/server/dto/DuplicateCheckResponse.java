@@ -13,13 +13,17 @@ public class DuplicateCheckResponse {
     private boolean isDuplicate;
     private DownloadedFile fileInfo;
 
+    // Set when the server was over capacity and answered from its cache only;
+    // a non-duplicate answer is then not authoritative
+    private boolean degraded;
+
     /**
      * Factory method to create a response for a confirmed duplicate.
      * @param existingFile The file entity that was found.
      * @return A new DuplicateCheckResponse object.
      */
     public static DuplicateCheckResponse duplicate(DownloadedFile existingFile) {
-        return new DuplicateCheckResponse(true, existingFile);
+        return new DuplicateCheckResponse(true, existingFile, false);
     }
 
     /**
@@ -27,6 +31,15 @@ public class DuplicateCheckResponse {
      * @return A new DuplicateCheckResponse object.
      */
     public static DuplicateCheckResponse notADuplicate() {
-        return new DuplicateCheckResponse(false, null);
+        return new DuplicateCheckResponse(false, null, false);
+    }
+
+    /**
+     * Factory method to create a response answered from cached data only.
+     * @param cachedFile The cached file that matched, or null if none did.
+     * @return A new DuplicateCheckResponse object flagged as degraded.
+     */
+    public static DuplicateCheckResponse degraded(DownloadedFile cachedFile) {
+        return new DuplicateCheckResponse(cachedFile != null, cachedFile, true);
     }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.aman.ddas.server.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Most-duplicated files and most frequent duplicate downloaders in a sliding window.
+ * Counts are approximate: the true count lies between minCount and count.
+ */
+@Data
+public class HeavyHittersResponse {
+    private String window;
+    // Duplicate hits seen in the window
+    private long totalDuplicates;
+    // Hits whose check carried no downloaderId; they are left out of the downloader ranking
+    private long unattributedDuplicates;
+    // No reported count is more than this above the true count
+    private long maxError;
+    private List<Entry> files;
+    private List<Entry> downloaders;
+
+    @Data
+    public static class Entry {
+        private String key;
+        private String label;
+        private long count;
+        private long minCount;
+        // True when this entry is certainly in the real top list
+        private boolean guaranteed;
+    }
+}
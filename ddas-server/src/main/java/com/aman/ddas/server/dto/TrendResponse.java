@@ -0,0 +1,36 @@
+package com.aman.ddas.server.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Time series read from the rollup tables for the dashboard trend views.
+ * Byte counts are raw numbers so the dashboard can chart them.
+ */
+@Data
+public class TrendResponse {
+    private String granularity;
+    private String from;
+    private String to;
+    // One point per bucket in [from, to), including empty buckets
+    private List<Point> points;
+
+    @Data
+    public static class Point {
+        private String bucket;
+        private long downloads;
+        private long bytesDownloaded;
+        private long blockedDuplicates;
+        private long bytesSaved;
+    }
+
+    @Data
+    public static class TopEntry {
+        private String key;
+        private long downloads;
+        private long bytesDownloaded;
+        private long blockedDuplicates;
+        private long bytesSaved;
+    }
+}
@@ -0,0 +1,58 @@
+package com.aman.ddas.server.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects every latency sample of one endpoint; percentiles are exact.
+ */
+public class LatencyStats {
+
+    private final ConcurrentLinkedQueue<Long> samples = new ConcurrentLinkedQueue<>();
+    private final LongAdder errors = new LongAdder();
+    private volatile long[] sorted;
+
+    public void record(long latencyNanos, boolean success) {
+        samples.add(latencyNanos);
+        if (!success) {
+            errors.increment();
+        }
+        sorted = null;
+    }
+
+    public long count() {
+        return samples.size();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.999 for p999
+     * @return the latency in milliseconds, or 0 when there are no samples
+     */
+    public double percentileMillis(double quantile) {
+        long[] values = sortedSamples();
+        if (values.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * values.length) - 1;
+        return values[Math.max(0, Math.min(values.length - 1, index))] / 1_000_000.0;
+    }
+
+    public double maxMillis() {
+        long[] values = sortedSamples();
+        return values.length == 0 ? 0 : values[values.length - 1] / 1_000_000.0;
+    }
+
+    private synchronized long[] sortedSamples() {
+        if (sorted == null) {
+            long[] values = samples.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(values);
+            sorted = values;
+        }
+        return sorted;
+    }
+}
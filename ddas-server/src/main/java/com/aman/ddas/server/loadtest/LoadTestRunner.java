@@ -0,0 +1,194 @@
+package com.aman.ddas.server.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the server on the embedded database, replays a recorded or synthetic
+ * trace against it and prints a latency / throughput / query count report.
+ *
+ * Run with: java -jar ddas-server.jar --spring.profiles.active=loadtest
+ * (see application-loadtest.properties for the knobs).
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestRunner implements ApplicationRunner {
+
+    private final ConfigurableApplicationContext context;
+    private final ObjectMapper objectMapper;
+    private final QueryCountFilter queryCounts;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ddas.loadtest.trace-file:}")
+    private String traceFile;
+
+    @Value("${ddas.loadtest.mode:OPEN}")
+    private TraceReplayer.Mode mode;
+
+    @Value("${ddas.loadtest.rate:0}")
+    private double rate;
+
+    @Value("${ddas.loadtest.speed:1.0}")
+    private double speed;
+
+    @Value("${ddas.loadtest.max-idle-gap-ms:60000}")
+    private long maxIdleGapMillis;
+
+    @Value("${ddas.loadtest.concurrency:16}")
+    private int concurrency;
+
+    @Value("${ddas.loadtest.timeout-ms:10000}")
+    private long timeoutMillis;
+
+    @Value("${ddas.loadtest.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    @Value("${ddas.loadtest.synthetic.checks:10000}")
+    private int checks;
+
+    @Value("${ddas.loadtest.synthetic.seed-files:1000}")
+    private int seedFiles;
+
+    @Value("${ddas.loadtest.synthetic.hit-ratio:0.1}")
+    private double hitRatio;
+
+    @Value("${ddas.loadtest.synthetic.variant-rate:0.3}")
+    private double variantRate;
+
+    @Value("${ddas.loadtest.synthetic.median-size-bytes:20971520}")
+    private long medianSizeBytes;
+
+    @Value("${ddas.loadtest.synthetic.size-sigma:1.5}")
+    private double sizeSigma;
+
+    @Value("${ddas.loadtest.synthetic.burst-size:20}")
+    private int burstSize;
+
+    @Value("${ddas.loadtest.synthetic.downloaders:50}")
+    private int downloaders;
+
+    @Value("${ddas.loadtest.synthetic.random-seed:42}")
+    private long randomSeed;
+
+    public LoadTestRunner(ConfigurableApplicationContext context, ObjectMapper objectMapper,
+            QueryCountFilter queryCounts, MeterRegistry meterRegistry) {
+        this.context = context;
+        this.objectMapper = objectMapper;
+        this.queryCounts = queryCounts;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<TraceEvent> events = traceFile.isEmpty() ? syntheticTrace() : readTrace(Path.of(traceFile));
+        List<TraceEvent> warmup = events.stream().filter(TraceEvent::isWarmup).toList();
+        List<TraceEvent> measured = compressIdleGaps(events.stream().filter(e -> !e.isWarmup()).toList());
+
+        TraceReplayer.Settings settings = new TraceReplayer.Settings();
+        settings.setMode(mode);
+        settings.setRate(rate);
+        settings.setSpeed(speed);
+        settings.setConcurrency(concurrency);
+        settings.setTimeout(Duration.ofMillis(timeoutMillis));
+        // Only known once the embedded server has started, so it cannot be injected
+        String port = context.getEnvironment().getProperty("local.server.port");
+        TraceReplayer replayer = new TraceReplayer("http://localhost:" + port, objectMapper, settings);
+
+        System.out.println("LOADTEST: Seeding " + warmup.size() + " events, then replaying " + measured.size()
+                + " events (" + mode + ")");
+        replayer.prime(warmup);
+        queryCounts.reset();
+        double shedBefore = counterTotal("ddas.check.shed");
+        double degradedBefore = counterTotal("ddas.check.degraded");
+        TraceReplayer.Report report = replayer.replay(measured);
+        printReport(report, queryCounts.snapshot());
+        System.out.println(String.format("LOADTEST: Checks shed by admission control: %.0f, degraded responses: %.0f",
+                counterTotal("ddas.check.shed") - shedBefore, counterTotal("ddas.check.degraded") - degradedBefore));
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private double counterTotal(String name) {
+        return meterRegistry.find(name).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private List<TraceEvent> syntheticTrace() {
+        SyntheticTraceGenerator.Settings settings = new SyntheticTraceGenerator.Settings();
+        settings.setChecks(checks);
+        settings.setSeedFiles(seedFiles);
+        settings.setHitRatio(hitRatio);
+        settings.setVariantRate(variantRate);
+        settings.setMedianSizeBytes(medianSizeBytes);
+        settings.setSizeSigma(sizeSigma);
+        settings.setBurstSize(burstSize);
+        settings.setDownloaders(downloaders);
+        settings.setSeed(randomSeed);
+        return new SyntheticTraceGenerator(settings).generate();
+    }
+
+    private List<TraceEvent> readTrace(Path path) throws IOException {
+        List<TraceEvent> events = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    events.add(objectMapper.readValue(line, TraceEvent.class));
+                }
+            }
+        }
+        // Stable, so events recorded in the same millisecond keep their order
+        events.sort(Comparator.comparingLong(TraceEvent::getOffsetMillis));
+        return events;
+    }
+
+    /**
+     * Shortens idle periods, e.g. while the recording server was restarted,
+     * to maxIdleGapMillis so they are not replayed as minutes of silence.
+     */
+    private List<TraceEvent> compressIdleGaps(List<TraceEvent> events) {
+        long removed = 0;
+        for (int i = 1; i < events.size(); i++) {
+            long gap = events.get(i).getOffsetMillis() - removed - events.get(i - 1).getOffsetMillis();
+            if (gap > maxIdleGapMillis) {
+                removed += gap - maxIdleGapMillis;
+            }
+            events.get(i).setOffsetMillis(events.get(i).getOffsetMillis() - removed);
+        }
+        return events;
+    }
+
+    private void printReport(TraceReplayer.Report report, Map<String, QueryCountFilter.Counts> queries) {
+        System.out.println("LOADTEST: Wall time " + String.format("%.1f s", report.getWallNanos() / 1e9));
+        System.out.println(String.format("%-8s %8s %7s %9s %9s %9s %9s %9s",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        report.getLatencies().forEach((endpoint, stats) -> System.out.println(String.format(
+                "%-8s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f",
+                endpoint, stats.count(), stats.errors(), report.throughput(endpoint),
+                stats.percentileMillis(0.50), stats.percentileMillis(0.99), stats.percentileMillis(0.999),
+                stats.maxMillis())));
+        System.out.println(String.format("%-24s %8s %10s %6s", "uri", "requests", "queries/req", "max"));
+        queries.forEach((uri, counts) -> System.out.println(String.format("%-24s %8d %10.2f %6d",
+                uri, counts.getRequests(), counts.getMean(), counts.getMax())));
+    }
+}
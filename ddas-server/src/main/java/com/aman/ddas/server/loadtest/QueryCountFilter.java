@@ -0,0 +1,73 @@
+package com.aman.ddas.server.loadtest;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Attributes the statements counted by {@link QueryCountInspector} to the
+ * request URI that issued them.
+ */
+@Component
+@Profile("loadtest")
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static class Counts {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder queries = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        public long getQueries() {
+            return queries.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        public double getMean() {
+            long count = getRequests();
+            return count == 0 ? 0 : (double) getQueries() / count;
+        }
+    }
+
+    private final Map<String, Counts> counts = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCountInspector.reset();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int queries = QueryCountInspector.current();
+            Counts entry = counts.computeIfAbsent(request.getRequestURI(), uri -> new Counts());
+            entry.requests.increment();
+            entry.queries.add(queries);
+            entry.max.accumulateAndGet(queries, Math::max);
+        }
+    }
+
+    public Map<String, Counts> snapshot() {
+        return new TreeMap<>(counts);
+    }
+
+    public void reset() {
+        counts.clear();
+    }
+}
@@ -0,0 +1,138 @@
+package com.aman.ddas.server.loadtest;
+
+import com.aman.ddas.server.dto.DuplicateCheckRequest;
+import com.aman.ddas.server.dto.LogFileRequest;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates traces with the same shape as production traffic: a downloader
+ * fires a burst of checks that mostly miss, then logs the new files once
+ * they finish downloading.
+ */
+public class SyntheticTraceGenerator {
+
+    private static final String[] EXTENSIONS = { ".pdf", ".zip", ".docx", ".png", ".exe", ".iso", ".csv" };
+
+    @Data
+    public static class Settings {
+        // Number of measured /check requests
+        private int checks = 10_000;
+        // Files logged before measuring so that hits have something to match
+        private int seedFiles = 1_000;
+        // Fraction of checks that hit an already logged file
+        private double hitRatio = 0.1;
+        // Fraction of hits that come in as a "name (N).ext" browser variant
+        private double variantRate = 0.3;
+        // File sizes are log-normal around the median, capped at maxSizeBytes
+        private long medianSizeBytes = 20L * 1024 * 1024;
+        private double sizeSigma = 1.5;
+        private long maxSizeBytes = 8L * 1024 * 1024 * 1024;
+        private int burstSize = 20;
+        private long intraBurstGapMillis = 5;
+        private long interBurstGapMillis = 500;
+        private int downloaders = 50;
+        private long seed = 42;
+    }
+
+    private final Settings settings;
+    private final Random random;
+    private final List<LogFileRequest> known = new ArrayList<>();
+    private long nextFileId;
+
+    public SyntheticTraceGenerator(Settings settings) {
+        this.settings = settings;
+        this.random = new Random(settings.getSeed());
+    }
+
+    public List<TraceEvent> generate() {
+        List<TraceEvent> events = new ArrayList<>();
+
+        for (int i = 0; i < settings.getSeedFiles(); i++) {
+            LogFileRequest seed = newFile(randomDownloader());
+            known.add(seed);
+            TraceEvent event = TraceEvent.log(0, seed);
+            event.setWarmup(true);
+            events.add(event);
+        }
+
+        long now = 0;
+        int remaining = settings.getChecks();
+        while (remaining > 0) {
+            String downloader = randomDownloader();
+            List<LogFileRequest> misses = new ArrayList<>();
+            int burst = Math.min(remaining, settings.getBurstSize());
+            for (int i = 0; i < burst; i++) {
+                if (!known.isEmpty() && random.nextDouble() < settings.getHitRatio()) {
+                    events.add(TraceEvent.check(now, hit(downloader)));
+                } else {
+                    LogFileRequest file = newFile(downloader);
+                    misses.add(file);
+                    events.add(TraceEvent.check(now, toCheck(file)));
+                }
+                now += settings.getIntraBurstGapMillis();
+            }
+            for (LogFileRequest file : misses) {
+                events.add(TraceEvent.log(now, file));
+                known.add(file);
+                now += settings.getIntraBurstGapMillis();
+            }
+            remaining -= burst;
+            now += settings.getInterBurstGapMillis();
+        }
+        return events;
+    }
+
+    private DuplicateCheckRequest hit(String downloader) {
+        LogFileRequest original = known.get(random.nextInt(known.size()));
+        DuplicateCheckRequest request = new DuplicateCheckRequest();
+        request.setDownloaderId(downloader);
+        if (random.nextDouble() < settings.getVariantRate()) {
+            // Re-download from a different link: only the filename smart match can catch it
+            String name = original.getFileName();
+            int dot = name.lastIndexOf('.');
+            request.setFileName(name.substring(0, dot) + " (" + (1 + random.nextInt(3)) + ")" + name.substring(dot));
+            request.setOriginalUrl("https://synthetic.invalid/mirror/" + (nextFileId++));
+        } else {
+            request.setFileName(original.getFileName());
+            request.setOriginalUrl(original.getOriginalUrl());
+            request.setEtag(original.getEtag());
+            request.setContentLength(original.getContentLength());
+        }
+        return request;
+    }
+
+    private LogFileRequest newFile(String downloader) {
+        long id = nextFileId++;
+        LogFileRequest file = new LogFileRequest();
+        file.setFileName("file-" + id + EXTENSIONS[random.nextInt(EXTENSIONS.length)]);
+        file.setOriginalUrl("https://synthetic.invalid/files/" + id);
+        file.setEtag("\"" + Long.toHexString(random.nextLong()) + "\"");
+        file.setContentLength(sampleSize());
+        file.setDownloaderId(downloader);
+        file.setDesktopId(downloader + "-desktop");
+        return file;
+    }
+
+    private DuplicateCheckRequest toCheck(LogFileRequest file) {
+        DuplicateCheckRequest request = new DuplicateCheckRequest();
+        request.setOriginalUrl(file.getOriginalUrl());
+        request.setEtag(file.getEtag());
+        request.setContentLength(file.getContentLength());
+        request.setFileName(file.getFileName());
+        request.setDownloaderId(file.getDownloaderId());
+        return request;
+    }
+
+    private long sampleSize() {
+        double size = Math.exp(Math.log(settings.getMedianSizeBytes()) + settings.getSizeSigma() * random.nextGaussian());
+        return Math.max(1, Math.min(settings.getMaxSizeBytes(), (long) size));
+    }
+
+    private String randomDownloader() {
+        return "user-" + random.nextInt(settings.getDownloaders());
+    }
+}
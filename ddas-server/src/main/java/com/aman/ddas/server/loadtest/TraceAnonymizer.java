@@ -0,0 +1,97 @@
+package com.aman.ddas.server.loadtest;
+
+import com.aman.ddas.server.dto.DuplicateCheckRequest;
+import com.aman.ddas.server.dto.LogFileRequest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replaces identifying values in recorded requests with salted HMAC tokens.
+ * Equal inputs map to equal tokens, so a replayed check matches the same
+ * (anonymized) file as the original one did, provided that file is in the
+ * trace too; TraceRecorder takes care of files logged before recording began.
+ * The " (N)" browser suffix and the file extension are kept, so the filename
+ * smart match path is exercised the same way.
+ */
+public class TraceAnonymizer {
+
+    // stem, then any number of " (N)" suffixes, then an optional extension
+    private static final Pattern FILE_NAME = Pattern.compile("^(.*?)((?: \\(\\d+\\))*)(\\.[^.]+)?$");
+
+    private final byte[] salt;
+
+    public TraceAnonymizer(String salt) {
+        if (salt == null || salt.isEmpty()) {
+            // No salt configured: tokens are only stable within this recording
+            this.salt = new byte[32];
+            new SecureRandom().nextBytes(this.salt);
+        } else {
+            this.salt = salt.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    public DuplicateCheckRequest anonymize(DuplicateCheckRequest request) {
+        DuplicateCheckRequest copy = new DuplicateCheckRequest();
+        copy.setOriginalUrl(anonymizeUrl(request.getOriginalUrl()));
+        copy.setEtag(token(request.getEtag()));
+        copy.setContentLength(request.getContentLength());
+        copy.setFileName(anonymizeFileName(request.getFileName()));
+        copy.setDownloaderId(token(request.getDownloaderId()));
+        return copy;
+    }
+
+    public LogFileRequest anonymize(LogFileRequest request) {
+        LogFileRequest copy = new LogFileRequest();
+        copy.setOriginalUrl(anonymizeUrl(request.getOriginalUrl()));
+        copy.setFileName(anonymizeFileName(request.getFileName()));
+        copy.setFileHash(token(request.getFileHash()));
+        copy.setEtag(token(request.getEtag()));
+        copy.setContentLength(request.getContentLength());
+        // Local paths are never replayable and may contain user names
+        copy.setLocalStoragePath(null);
+        copy.setDownloaderId(token(request.getDownloaderId()));
+        copy.setDesktopId(token(request.getDesktopId()));
+        return copy;
+    }
+
+    String anonymizeUrl(String url) {
+        if (url == null) {
+            return null;
+        }
+        return "https://trace.invalid/" + token(url);
+    }
+
+    String anonymizeFileName(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        Matcher matcher = FILE_NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            return token(fileName);
+        }
+        String suffix = matcher.group(2);
+        String extension = matcher.group(3) != null ? matcher.group(3) : "";
+        return token(matcher.group(1)) + suffix + extension;
+    }
+
+    String token(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(salt, "HmacSHA256"));
+            byte[] digest = mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
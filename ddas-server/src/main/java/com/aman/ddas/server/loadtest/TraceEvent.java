@@ -0,0 +1,45 @@
+package com.aman.ddas.server.loadtest;
+
+import com.aman.ddas.server.dto.DuplicateCheckRequest;
+import com.aman.ddas.server.dto.LogFileRequest;
+import lombok.Data;
+
+/**
+ * One line of a request trace (stored as JSON lines).
+ * Exactly one of {@code check} or {@code log} is set, matching {@code endpoint}.
+ */
+@Data
+public class TraceEvent {
+
+    public enum Endpoint {
+        CHECK, LOG
+    }
+
+    // Milliseconds on the trace's own clock; only differences matter. Recorded traces use epoch millis.
+    private long offsetMillis;
+
+    private Endpoint endpoint;
+
+    // Warm-up events populate the database before measuring and are not reported
+    private boolean warmup;
+
+    private DuplicateCheckRequest check;
+
+    private LogFileRequest log;
+
+    public static TraceEvent check(long offsetMillis, DuplicateCheckRequest request) {
+        TraceEvent event = new TraceEvent();
+        event.setOffsetMillis(offsetMillis);
+        event.setEndpoint(Endpoint.CHECK);
+        event.setCheck(request);
+        return event;
+    }
+
+    public static TraceEvent log(long offsetMillis, LogFileRequest request) {
+        TraceEvent event = new TraceEvent();
+        event.setOffsetMillis(offsetMillis);
+        event.setEndpoint(Endpoint.LOG);
+        event.setLog(request);
+        return event;
+    }
+}
@@ -0,0 +1,130 @@
+package com.aman.ddas.server.loadtest;
+
+import com.aman.ddas.server.dto.DuplicateCheckRequest;
+import com.aman.ddas.server.dto.LogFileRequest;
+import com.aman.ddas.server.model.DownloadedFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.io.BufferedReader;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Records anonymized /check and /log requests as a JSON-lines trace that
+ * the load-test harness can replay.
+ * Disabled unless ddas.trace.record-path is set.
+ *
+ * Offsets are wall-clock epoch milliseconds, so a file appended to across
+ * restarts stays in order. The replay starts from an empty database, so the
+ * first time a check matches a file that is not logged anywhere in the trace,
+ * that file is recorded as a warm-up LOG event and the hit is a hit on replay.
+ */
+@Component
+public class TraceRecorder {
+
+    private final ObjectMapper objectMapper;
+    private final TraceAnonymizer anonymizer;
+    private final BufferedWriter writer;
+    // Anonymized URLs of the files the trace already logs or seeds; guarded by this
+    private final Set<String> tracedFiles = new HashSet<>();
+
+    public TraceRecorder(ObjectMapper objectMapper,
+            @Value("${ddas.trace.record-path:}") String recordPath,
+            @Value("${ddas.trace.salt:}") String salt) throws IOException {
+        this.objectMapper = objectMapper;
+        this.anonymizer = new TraceAnonymizer(salt);
+        if (recordPath.isEmpty()) {
+            this.writer = null;
+        } else {
+            loadTracedFiles(Path.of(recordPath));
+            this.writer = Files.newBufferedWriter(Path.of(recordPath), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            System.out.println("TRACE: Recording anonymized requests to " + recordPath);
+        }
+    }
+
+    public void recordCheck(DuplicateCheckRequest request) {
+        if (writer != null) {
+            write(TraceEvent.check(System.currentTimeMillis(), anonymizer.anonymize(request)));
+        }
+    }
+
+    public void recordLog(LogFileRequest request) {
+        if (writer != null) {
+            LogFileRequest anonymized = anonymizer.anonymize(request);
+            synchronized (this) {
+                tracedFiles.add(anonymized.getOriginalUrl());
+            }
+            write(TraceEvent.log(System.currentTimeMillis(), anonymized));
+        }
+    }
+
+    /** Called with the file a recorded check matched. */
+    public void recordMatch(DownloadedFile file) {
+        if (writer == null || file == null) {
+            return;
+        }
+        LogFileRequest seed = new LogFileRequest();
+        seed.setOriginalUrl(file.getOriginalUrl());
+        seed.setFileName(file.getFileName());
+        seed.setFileHash(file.getFileHash());
+        seed.setEtag(file.getEtag());
+        seed.setContentLength(file.getContentLength());
+        seed.setDownloaderId(file.getDownloaderId());
+        seed.setDesktopId(file.getDesktopId());
+        LogFileRequest anonymized = anonymizer.anonymize(seed);
+        synchronized (this) {
+            if (!tracedFiles.add(anonymized.getOriginalUrl())) {
+                return;
+            }
+        }
+        TraceEvent event = TraceEvent.log(System.currentTimeMillis(), anonymized);
+        event.setWarmup(true);
+        write(event);
+    }
+
+    // When appending, files logged by an earlier run are already in the trace
+    private void loadTracedFiles(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    TraceEvent event = objectMapper.readValue(line, TraceEvent.class);
+                    if (event.getLog() != null) {
+                        tracedFiles.add(event.getLog().getOriginalUrl());
+                    }
+                }
+            }
+        }
+    }
+
+    private synchronized void write(TraceEvent event) {
+        try {
+            writer.write(objectMapper.writeValueAsString(event));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            // Recording must never fail the request being recorded
+            System.err.println("TRACE: Failed to record request: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.aman.ddas.server.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a trace against a running server.
+ *
+ * OPEN mode sends each request at its scheduled time whether or not earlier
+ * requests have completed, and measures latency from the scheduled time so a
+ * stalled server is not hidden by the generator slowing down with it.
+ * CLOSED mode keeps a fixed number of requests in flight.
+ */
+public class TraceReplayer {
+
+    public enum Mode {
+        OPEN, CLOSED
+    }
+
+    @Data
+    public static class Settings {
+        private Mode mode = Mode.OPEN;
+        // OPEN: requests per second; 0 or less follows the trace's own offsets
+        private double rate = 0;
+        // OPEN with trace offsets: 2.0 replays twice as fast as recorded
+        private double speed = 1.0;
+        // CLOSED: requests in flight
+        private int concurrency = 16;
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Report {
+        private final Map<TraceEvent.Endpoint, LatencyStats> latencies = new EnumMap<>(TraceEvent.Endpoint.class);
+        private long wallNanos;
+
+        public double throughput(TraceEvent.Endpoint endpoint) {
+            LatencyStats stats = latencies.get(endpoint);
+            return stats == null || wallNanos == 0 ? 0 : stats.count() / (wallNanos / 1e9);
+        }
+    }
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final Settings settings;
+    private final HttpClient client;
+
+    public TraceReplayer(String baseUrl, ObjectMapper objectMapper, Settings settings) {
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.getTimeout())
+                .build();
+    }
+
+    public Report replay(List<TraceEvent> events) throws InterruptedException {
+        Report report = new Report();
+        for (TraceEvent.Endpoint endpoint : TraceEvent.Endpoint.values()) {
+            report.getLatencies().put(endpoint, new LatencyStats());
+        }
+        long start = System.nanoTime();
+        if (settings.getMode() == Mode.OPEN) {
+            replayOpen(events, report, start);
+        } else {
+            replayClosed(events, report, settings.getConcurrency());
+        }
+        report.setWallNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Sends the events one after another without recording anything, e.g. to
+     * seed the database before a measured run.
+     */
+    public void prime(List<TraceEvent> events) throws InterruptedException {
+        replayClosed(events, null, Math.max(1, settings.getConcurrency()));
+    }
+
+    private void replayOpen(List<TraceEvent> events, Report report, long start) {
+        List<CompletableFuture<?>> inFlight = new ArrayList<>(events.size());
+        long firstOffset = events.isEmpty() ? 0 : events.get(0).getOffsetMillis();
+        for (int i = 0; i < events.size(); i++) {
+            TraceEvent event = events.get(i);
+            long scheduled = start + scheduledOffsetNanos(event, i, firstOffset);
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LatencyStats stats = report.getLatencies().get(event.getEndpoint());
+            inFlight.add(client.sendAsync(toHttpRequest(event), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        stats.record(System.nanoTime() - scheduled, error == null && isSuccess(response));
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).join();
+    }
+
+    private long scheduledOffsetNanos(TraceEvent event, int index, long firstOffset) {
+        if (settings.getRate() > 0) {
+            return (long) (index * 1e9 / settings.getRate());
+        }
+        return (long) ((event.getOffsetMillis() - firstOffset) * 1_000_000 / settings.getSpeed());
+    }
+
+    private void replayClosed(List<TraceEvent> events, Report report, int concurrency) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int w = 0; w < concurrency; w++) {
+            workers.execute(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < events.size()) {
+                    TraceEvent event = events.get(index);
+                    long sent = System.nanoTime();
+                    boolean success;
+                    try {
+                        success = isSuccess(client.send(toHttpRequest(event), HttpResponse.BodyHandlers.discarding()));
+                    } catch (IOException e) {
+                        success = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (report != null) {
+                        report.getLatencies().get(event.getEndpoint()).record(System.nanoTime() - sent, success);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private HttpRequest toHttpRequest(TraceEvent event) {
+        String path;
+        Object body;
+        if (event.getEndpoint() == TraceEvent.Endpoint.CHECK) {
+            path = "/api/downloads/check";
+            body = event.getCheck();
+        } else {
+            path = "/api/downloads/log";
+            body = event.getLog();
+        }
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(settings.getTimeout())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize trace event", e);
+        }
+    }
+
+    private static boolean isSuccess(HttpResponse<?> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+}
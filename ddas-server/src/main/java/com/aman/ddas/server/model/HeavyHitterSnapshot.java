@@ -0,0 +1,26 @@
+package com.aman.ddas.server.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latest persisted state of one heavy-hitter tracker, so the sliding windows
+ * survive a restart. One row per tracker, overwritten on every snapshot.
+ */
+@Data
+@Entity
+public class HeavyHitterSnapshot {
+
+    @Id
+    @Column(length = 64)
+    private String tracker;
+
+    @Column(nullable = false)
+    private LocalDateTime takenAt;
+
+    // JSON list of panes; bounded by pane count * sketch capacity
+    @Column(nullable = false, length = 4 * 1024 * 1024)
+    private String state;
+}
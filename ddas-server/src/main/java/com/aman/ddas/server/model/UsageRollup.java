@@ -0,0 +1,58 @@
+package com.aman.ddas.server.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated download and duplicate counts for one time bucket and one
+ * downloader or desktop. Maintained by UsageRollupService so trend queries
+ * never have to scan DownloadedFile or BlockedDuplicate.
+ */
+@Data
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "granularity", "dimension", "dimensionKey", "bucketStart" }),
+        indexes = @Index(columnList = "granularity, dimension, bucketStart"))
+public class UsageRollup {
+
+    public enum Granularity {
+        HOUR, DAY
+    }
+
+    public enum Dimension {
+        DOWNLOADER, DESKTOP
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Granularity granularity;
+
+    // Start of the hour or day, local server time
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Dimension dimension;
+
+    // The downloaderId or desktopId
+    @Column(nullable = false)
+    private String dimensionKey;
+
+    @Column(nullable = false)
+    private long downloads;
+
+    @Column(nullable = false)
+    private long bytesDownloaded;
+
+    @Column(nullable = false)
+    private long blockedDuplicates;
+
+    @Column(nullable = false)
+    private long bytesSaved;
+}
@@ -1,13 +1,21 @@
 package com.aman.ddas.server.repository;
 
 import com.aman.ddas.server.model.BlockedDuplicate;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface BlockedDuplicateRepository extends JpaRepository<BlockedDuplicate, Long> {
 
     @Query("SELECT SUM(b.fileSize) FROM BlockedDuplicate b")
     Long getTotalStorageSaved();
+
+    // Rollup backfill, one keyset page (id > lastId) at a time
+    List<BlockedDuplicate> findByBlockedTimestampBeforeAndIdGreaterThanOrderByIdAsc(LocalDateTime cutoff, Long lastId,
+            Limit limit);
 }
@@ -26,6 +26,10 @@ public interface DownloadedFileRepository extends JpaRepository<DownloadedFile,
 
     java.util.List<DownloadedFile> findTop5ByOrderByDownloadTimestampDesc();
 
+    // Warm-up: most recent files first, without the count query a Page would need
+    java.util.List<DownloadedFile> findAllByOrderByDownloadTimestampDesc(
+            org.springframework.data.domain.Pageable pageable);
+
     // Search
     java.util.List<DownloadedFile> findByFileNameContainingIgnoreCaseOrDownloaderIdContainingIgnoreCase(String fileName,
             String downloaderId);
@@ -37,6 +41,10 @@ public interface DownloadedFileRepository extends JpaRepository<DownloadedFile,
     // Cleanup: Find files older than date
     java.util.List<DownloadedFile> findByDownloadTimestampBefore(java.time.LocalDateTime cutoffDate);
 
+    // Rollup backfill: same filter, one keyset page at a time (id > lastId) so no page pays for an OFFSET
+    java.util.List<DownloadedFile> findByDownloadTimestampBeforeAndIdGreaterThanOrderByIdAsc(
+            java.time.LocalDateTime cutoffDate, Long lastId, org.springframework.data.domain.Limit limit);
+
     @org.springframework.data.jpa.repository.Query("SELECT d FROM DownloadedFile d WHERE d.fileName = :exactName OR d.fileName LIKE :likePattern")
     java.util.List<DownloadedFile> findPotentialDuplicates(
             @org.springframework.data.repository.query.Param("exactName") String exactName,
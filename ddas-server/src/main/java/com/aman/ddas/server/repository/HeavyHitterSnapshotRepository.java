@@ -0,0 +1,9 @@
+package com.aman.ddas.server.repository;
+
+import com.aman.ddas.server.model.HeavyHitterSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface HeavyHitterSnapshotRepository extends JpaRepository<HeavyHitterSnapshot, String> {
+}
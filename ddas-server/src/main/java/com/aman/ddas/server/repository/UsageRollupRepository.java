@@ -0,0 +1,61 @@
+package com.aman.ddas.server.repository;
+
+import com.aman.ddas.server.model.UsageRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UsageRollupRepository extends JpaRepository<UsageRollup, Long> {
+
+    /**
+     * Sums of the rollup counters, either per bucket or per dimension key.
+     */
+    interface Totals {
+        LocalDateTime getBucketStart();
+
+        String getDimensionKey();
+
+        long getDownloads();
+
+        long getBytesDownloaded();
+
+        long getBlockedDuplicates();
+
+        long getBytesSaved();
+    }
+
+    Optional<UsageRollup> findByGranularityAndDimensionAndDimensionKeyAndBucketStart(
+            UsageRollup.Granularity granularity, UsageRollup.Dimension dimension, String dimensionKey,
+            LocalDateTime bucketStart);
+
+    // Every event is counted once per dimension, so summing one dimension gives the overall totals
+    @Query("SELECT r.bucketStart AS bucketStart, SUM(r.downloads) AS downloads, SUM(r.bytesDownloaded) AS bytesDownloaded, "
+            + "SUM(r.blockedDuplicates) AS blockedDuplicates, SUM(r.bytesSaved) AS bytesSaved FROM UsageRollup r "
+            + "WHERE r.granularity = :granularity AND r.dimension = :dimension "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to GROUP BY r.bucketStart ORDER BY r.bucketStart")
+    List<Totals> sumByBucket(@Param("granularity") UsageRollup.Granularity granularity,
+            @Param("dimension") UsageRollup.Dimension dimension,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.bucketStart AS bucketStart, r.downloads AS downloads, r.bytesDownloaded AS bytesDownloaded, "
+            + "r.blockedDuplicates AS blockedDuplicates, r.bytesSaved AS bytesSaved FROM UsageRollup r "
+            + "WHERE r.granularity = :granularity AND r.dimension = :dimension AND r.dimensionKey = :dimensionKey "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<Totals> findSeries(@Param("granularity") UsageRollup.Granularity granularity,
+            @Param("dimension") UsageRollup.Dimension dimension, @Param("dimensionKey") String dimensionKey,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.dimensionKey AS dimensionKey, SUM(r.downloads) AS downloads, SUM(r.bytesDownloaded) AS bytesDownloaded, "
+            + "SUM(r.blockedDuplicates) AS blockedDuplicates, SUM(r.bytesSaved) AS bytesSaved FROM UsageRollup r "
+            + "WHERE r.granularity = :granularity AND r.dimension = :dimension "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to GROUP BY r.dimensionKey")
+    List<Totals> sumByDimensionKey(@Param("granularity") UsageRollup.Granularity granularity,
+            @Param("dimension") UsageRollup.Dimension dimension,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,129 @@
+package com.aman.ddas.server.service;
+
+import com.aman.ddas.server.admission.AdaptiveConcurrencyLimiter;
+import com.aman.ddas.server.admission.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for /api/downloads/check.
+ *
+ * A request must get a token from its client's bucket and a slot from the
+ * global adaptive concurrency limit. Requests that miss either are not queued
+ * behind the database; the caller answers them from cache instead. The token
+ * is given back when the concurrency limit turns the request away, so clients
+ * are not rate-limited for checks that never ran.
+ */
+@Service
+public class AdmissionControlService {
+
+    /**
+     * Held for the duration of an admitted check; closing it reports the
+     * latency to the limiter. Closing a rejected permit does nothing.
+     */
+    public static final class Permit implements AutoCloseable {
+        private static final Permit REJECTED = new Permit(null, 0);
+
+        private final AdmissionControlService owner;
+        private final long startNanos;
+
+        private Permit(AdmissionControlService owner, long startNanos) {
+            this.owner = owner;
+            this.startNanos = startNanos;
+        }
+
+        public boolean isAdmitted() {
+            return this != REJECTED;
+        }
+
+        @Override
+        public void close() {
+            if (owner != null) {
+                long now = System.nanoTime();
+                owner.limiter.release(now - startNanos, now);
+            }
+        }
+    }
+
+    private final boolean enabled;
+    private final double downloaderRate;
+    private final double downloaderBurst;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final Counter shedByRateLimit;
+    private final Counter shedByConcurrency;
+    private final Counter degradedDuplicate;
+    private final Counter degradedNotDuplicate;
+
+    public AdmissionControlService(MeterRegistry registry,
+            @Value("${ddas.admission.enabled:true}") boolean enabled,
+            @Value("${ddas.admission.per-downloader.rate:10}") double downloaderRate,
+            @Value("${ddas.admission.per-downloader.burst:50}") double downloaderBurst,
+            @Value("${ddas.admission.concurrency.initial:10}") int initialLimit,
+            @Value("${ddas.admission.concurrency.min:2}") int minLimit,
+            @Value("${ddas.admission.concurrency.max:100}") int maxLimit,
+            @Value("${ddas.admission.concurrency.target-latency-ms:200}") long targetLatencyMillis,
+            @Value("${ddas.admission.concurrency.backoff-ratio:0.9}") double backoffRatio) {
+        this.enabled = enabled;
+        this.downloaderRate = downloaderRate;
+        this.downloaderBurst = downloaderBurst;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis), backoffRatio, System.nanoTime());
+
+        this.shedByRateLimit = Counter.builder("ddas.check.shed").tag("reason", "rate_limit")
+                .description("Checks not admitted because the client exceeded its rate").register(registry);
+        this.shedByConcurrency = Counter.builder("ddas.check.shed").tag("reason", "concurrency")
+                .description("Checks not admitted because the concurrency limit was reached").register(registry);
+        this.degradedDuplicate = Counter.builder("ddas.check.degraded").tag("result", "duplicate")
+                .description("Degraded (cache-only) check responses").register(registry);
+        this.degradedNotDuplicate = Counter.builder("ddas.check.degraded").tag("result", "not_duplicate")
+                .description("Degraded (cache-only) check responses").register(registry);
+        Gauge.builder("ddas.check.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for checks").register(registry);
+        Gauge.builder("ddas.check.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Admitted checks currently running").register(registry);
+    }
+
+    /**
+     * @param clientKey identifies the caller for the per-client rate limit,
+     *                  e.g. its downloaderId or address
+     */
+    public Permit tryAcquire(String clientKey) {
+        long now = System.nanoTime();
+        if (!enabled) {
+            return new Permit(null, now);
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(clientKey,
+                key -> new TokenBucket(downloaderRate, downloaderBurst, now));
+        if (!bucket.tryConsume(now)) {
+            shedByRateLimit.increment();
+            return Permit.REJECTED;
+        }
+        if (!limiter.tryAcquire()) {
+            bucket.refund();
+            shedByConcurrency.increment();
+            return Permit.REJECTED;
+        }
+        return new Permit(this, now);
+    }
+
+    public void recordDegraded(boolean duplicate) {
+        (duplicate ? degradedDuplicate : degradedNotDuplicate).increment();
+    }
+
+    // A full bucket behaves exactly like a new one, so it can be dropped to keep the map small
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+}
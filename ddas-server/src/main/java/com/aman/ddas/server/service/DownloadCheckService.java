@@ -27,34 +27,46 @@ public class DownloadCheckService {
     private final DownloadedFileRepository repository;
     private final BlockedDuplicateRepository blockedRepository;
     private final QuotaService quotaService;
+    private final DuplicateKeyCache duplicateKeyCache;
+    private final UsageRollupService rollupService;
+    private final HeavyHitterService heavyHitterService;
 
     @Autowired
     public DownloadCheckService(DownloadedFileRepository repository, BlockedDuplicateRepository blockedRepository,
-            QuotaService quotaService) {
+            QuotaService quotaService, DuplicateKeyCache duplicateKeyCache, UsageRollupService rollupService,
+            HeavyHitterService heavyHitterService) {
         this.repository = repository;
         this.blockedRepository = blockedRepository;
         this.quotaService = quotaService;
+        this.duplicateKeyCache = duplicateKeyCache;
+        this.rollupService = rollupService;
+        this.heavyHitterService = heavyHitterService;
     }
 
     /**
      * Finds the first available duplicate record based on the available metadata.
+     * Each step asks the in-memory cache of known files before the database.
      */
     private Optional<DownloadedFile> findDuplicate(DuplicateCheckRequest request) {
         // Primary check: ETag and Content-Length (most reliable)
         if (request.getEtag() != null && request.getContentLength() != null) {
-            Optional<DownloadedFile> existingFile = repository.findByEtagAndContentLength(
-                    request.getEtag(), request.getContentLength());
+            Optional<DownloadedFile> existingFile = duplicateKeyCache
+                    .findByEtagAndContentLength(request.getEtag(), request.getContentLength())
+                    .or(() -> repository.findByEtagAndContentLength(request.getEtag(), request.getContentLength()));
             if (existingFile.isPresent()) {
                 System.out.println("CHECK: Duplicate found by ETag/Length");
+                duplicateKeyCache.put(existingFile.get());
                 return existingFile;
             }
         }
 
         // Secondary check: Original URL (reliable)
         if (request.getOriginalUrl() != null) {
-            Optional<DownloadedFile> existingFile = repository.findByOriginalUrl(request.getOriginalUrl());
+            Optional<DownloadedFile> existingFile = duplicateKeyCache.findByOriginalUrl(request.getOriginalUrl())
+                    .or(() -> repository.findByOriginalUrl(request.getOriginalUrl()));
             if (existingFile.isPresent()) {
                 System.out.println("CHECK: Duplicate found by URL");
+                duplicateKeyCache.put(existingFile.get());
                 return existingFile;
             }
         }
@@ -64,9 +76,11 @@ public class DownloadCheckService {
             String requestedName = request.getFileName();
 
             // 1. Exact Match
-            Optional<DownloadedFile> existingFile = repository.findFirstByFileName(requestedName);
+            Optional<DownloadedFile> existingFile = duplicateKeyCache.findByFileName(requestedName)
+                    .or(() -> repository.findFirstByFileName(requestedName));
             if (existingFile.isPresent()) {
                 System.out.println("CHECK: Duplicate found by Filename (Exact)");
+                duplicateKeyCache.put(existingFile.get());
                 return existingFile;
             }
 
@@ -75,13 +89,15 @@ public class DownloadCheckService {
             // (before extension)
             // Example: "report (1).docx" -> "report.docx"
             // Example: "image (2).png" -> "image.png"
-            String cleanName = requestedName.replaceAll(" \\(\\d+\\)(?=\\.[^.]+$|$)", "");
+            String cleanName = stripCopySuffix(requestedName);
 
             if (!cleanName.equals(requestedName)) {
                 System.out.println("CHECK: Checking for clean filename: " + cleanName);
-                Optional<DownloadedFile> cleanMatch = repository.findFirstByFileName(cleanName);
+                Optional<DownloadedFile> cleanMatch = duplicateKeyCache.findByFileName(cleanName)
+                        .or(() -> repository.findFirstByFileName(cleanName));
                 if (cleanMatch.isPresent()) {
                     System.out.println("CHECK: Duplicate found by Filename (Smart Match)");
+                    duplicateKeyCache.put(cleanMatch.get());
                     return cleanMatch;
                 }
             }
@@ -90,9 +106,37 @@ public class DownloadCheckService {
         return Optional.empty();
     }
 
+    private static String stripCopySuffix(String fileName) {
+        return fileName.replaceAll(" \\(\\d+\\)(?=\\.[^.]+$|$)", "");
+    }
+
+    /**
+     * Answers a check from the in-memory cache alone, in the same order as
+     * findDuplicate, without touching the database. Used when admission
+     * control sheds a request: a miss here may still be a duplicate, so the
+     * response is flagged as degraded and nothing is logged.
+     */
+    public DuplicateCheckResponse checkCachedOnly(DuplicateCheckRequest request) {
+        Optional<DownloadedFile> cached = Optional.empty();
+        if (request.getEtag() != null && request.getContentLength() != null) {
+            cached = duplicateKeyCache.findByEtagAndContentLength(request.getEtag(), request.getContentLength());
+        }
+        if (cached.isEmpty() && request.getOriginalUrl() != null) {
+            cached = duplicateKeyCache.findByOriginalUrl(request.getOriginalUrl());
+        }
+        if (cached.isEmpty() && request.getFileName() != null) {
+            String requestedName = request.getFileName();
+            cached = duplicateKeyCache.findByFileName(requestedName)
+                    .or(() -> duplicateKeyCache.findByFileName(stripCopySuffix(requestedName)));
+        }
+        return DuplicateCheckResponse.degraded(cached.orElse(null));
+    }
+
     public DuplicateCheckResponse checkForDuplicate(DuplicateCheckRequest request) {
         Optional<DownloadedFile> duplicate = findDuplicate(request);
         if (duplicate.isPresent()) {
+            heavyHitterService.recordDuplicate(duplicate.get(), request.getDownloaderId());
+
             // Log the blocked duplicate
             try {
                 BlockedDuplicate blocked = new BlockedDuplicate();
@@ -106,6 +150,7 @@ public class DownloadCheckService {
                 blocked.setBlockedTimestamp(LocalDateTime.now());
                 blocked.setOriginalFileId(duplicate.get().getId());
                 blockedRepository.save(blocked);
+                rollupService.recordBlockedDuplicate(blocked, duplicate.get());
                 System.out.println("LOG: Blocked duplicate logged for file: " + blocked.getFileName());
             } catch (Exception e) {
                 System.err.println("LOG: Failed to log blocked duplicate: " + e.getMessage());
@@ -193,7 +238,10 @@ public class DownloadCheckService {
         newFile.setDownloadTimestamp(LocalDateTime.now());
 
         try {
-            return repository.save(newFile);
+            DownloadedFile savedFile = repository.save(newFile);
+            duplicateKeyCache.put(savedFile);
+            rollupService.recordDownload(savedFile);
+            return savedFile;
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             System.err.println("LOG: Data integrity violation (likely duplicate hash): " + e.getMessage());
             // Try to recover by finding the duplicate that caused this
@@ -0,0 +1,80 @@
+package com.aman.ddas.server.service;
+
+import com.aman.ddas.server.model.DownloadedFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU cache of recently seen files, keyed the same way the duplicate
+ * check looks them up (ETag + length, URL, filename).
+ * Only hits are cached; misses always go to the database. A cached entry can
+ * only become a false positive if its row is deleted, which nothing does today:
+ * any code that deletes DownloadedFile rows must call evict for each of them.
+ */
+@Component
+public class DuplicateKeyCache {
+
+    private final Map<String, DownloadedFile> entries;
+
+    public DuplicateKeyCache(@Value("${ddas.cache.duplicate-keys.capacity:30000}") int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DownloadedFile> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public void put(DownloadedFile file) {
+        synchronized (entries) {
+            if (file.getEtag() != null && file.getContentLength() != null) {
+                entries.put(etagKey(file.getEtag(), file.getContentLength()), file);
+            }
+            if (file.getOriginalUrl() != null) {
+                entries.put("U|" + file.getOriginalUrl(), file);
+            }
+            if (file.getFileName() != null) {
+                entries.putIfAbsent("N|" + file.getFileName(), file);
+            }
+        }
+    }
+
+    /** Drops every key that still points at this file. */
+    public void evict(DownloadedFile file) {
+        synchronized (entries) {
+            entries.values().removeIf(cached -> cached.getId() != null && cached.getId().equals(file.getId()));
+        }
+    }
+
+    public Optional<DownloadedFile> findByEtagAndContentLength(String etag, Long contentLength) {
+        return get(etagKey(etag, contentLength));
+    }
+
+    public Optional<DownloadedFile> findByOriginalUrl(String originalUrl) {
+        return get("U|" + originalUrl);
+    }
+
+    public Optional<DownloadedFile> findByFileName(String fileName) {
+        return get("N|" + fileName);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Optional<DownloadedFile> get(String key) {
+        synchronized (entries) {
+            return Optional.ofNullable(entries.get(key));
+        }
+    }
+
+    private static String etagKey(String etag, Long contentLength) {
+        return "E|" + etag + "|" + contentLength;
+    }
+}
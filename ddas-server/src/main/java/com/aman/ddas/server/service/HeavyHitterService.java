@@ -0,0 +1,199 @@
+package com.aman.ddas.server.service;
+
+import com.aman.ddas.server.dto.HeavyHittersResponse;
+import com.aman.ddas.server.model.DownloadedFile;
+import com.aman.ddas.server.model.HeavyHitterSnapshot;
+import com.aman.ddas.server.repository.DownloadedFileRepository;
+import com.aman.ddas.server.repository.HeavyHitterSnapshotRepository;
+import com.aman.ddas.server.sketch.SlidingTopK;
+import com.aman.ddas.server.sketch.SpaceSavingSketch;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks which original files are re-downloaded most, and by whom, over
+ * sliding windows, without querying BlockedDuplicate.
+ *
+ * Every duplicate hit feeds a Space-Saving sketch per window, so memory stays
+ * bounded by capacity * panes regardless of traffic. Snapshots are written
+ * periodically and on shutdown and restored once the application is ready,
+ * so creating the context (e.g. the CDS training run) never needs the database.
+ * The restore is merged with any hits already recorded by then.
+ * Hits without a downloaderId count towards the files but not the downloader ranking.
+ */
+@Service
+public class HeavyHitterService {
+
+    public enum Window {
+        // Window length split into panes; the window slides one pane at a time
+        HOUR(Duration.ofMinutes(5), 12),
+        DAY(Duration.ofHours(1), 24),
+        WEEK(Duration.ofDays(1), 7);
+
+        private final Duration pane;
+        private final int panes;
+
+        Window(Duration pane, int panes) {
+            this.pane = pane;
+            this.panes = panes;
+        }
+    }
+
+    private static final String FILES = "FILES";
+    private static final String DOWNLOADERS = "DOWNLOADERS";
+
+    private final DownloadedFileRepository fileRepository;
+    private final HeavyHitterSnapshotRepository snapshotRepository;
+    private final ObjectMapper objectMapper;
+
+    // Tracker name (e.g. FILES:DAY) -> sliding sketch; guarded by this
+    private final Map<String, SlidingTopK> trackers = new HashMap<>();
+    // Nothing is persisted before the restore, which would overwrite the stored snapshots with empty ones
+    private volatile boolean restored;
+
+    @Autowired
+    public HeavyHitterService(DownloadedFileRepository fileRepository,
+            HeavyHitterSnapshotRepository snapshotRepository, ObjectMapper objectMapper,
+            @Value("${ddas.heavy-hitters.capacity:256}") int capacity) {
+        this.fileRepository = fileRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.objectMapper = objectMapper;
+        for (Window window : Window.values()) {
+            trackers.put(trackerName(FILES, window), new SlidingTopK(capacity, window.pane.toMillis(), window.panes));
+            trackers.put(trackerName(DOWNLOADERS, window),
+                    new SlidingTopK(capacity, window.pane.toMillis(), window.panes));
+        }
+    }
+
+    public synchronized void recordDuplicate(DownloadedFile original, String downloaderId) {
+        long now = System.currentTimeMillis();
+        String fileKey = String.valueOf(original.getId());
+        for (Window window : Window.values()) {
+            trackers.get(trackerName(FILES, window)).offer(fileKey, now);
+            if (downloaderId != null && !downloaderId.isEmpty()) {
+                trackers.get(trackerName(DOWNLOADERS, window)).offer(downloaderId, now);
+            }
+        }
+    }
+
+    public HeavyHittersResponse getHeavyHitters(Window window, int limit) {
+        SpaceSavingSketch files;
+        SpaceSavingSketch downloaders;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            files = trackers.get(trackerName(FILES, window)).window(now);
+            downloaders = trackers.get(trackerName(DOWNLOADERS, window)).window(now);
+        }
+
+        List<HeavyHittersResponse.Entry> fileEntries = toEntries(files, limit);
+        // Resolve names for the handful of reported ids only
+        List<Long> ids = fileEntries.stream().map(e -> Long.valueOf(e.getKey())).toList();
+        Map<String, String> names = fileRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(f -> String.valueOf(f.getId()), DownloadedFile::getFileName));
+        fileEntries.forEach(e -> e.setLabel(names.get(e.getKey())));
+
+        List<HeavyHittersResponse.Entry> downloaderEntries = toEntries(downloaders, limit);
+        downloaderEntries.forEach(e -> e.setLabel(e.getKey()));
+
+        HeavyHittersResponse response = new HeavyHittersResponse();
+        response.setWindow(window.name());
+        response.setTotalDuplicates(files.getTotal());
+        response.setUnattributedDuplicates(Math.max(0, files.getTotal() - downloaders.getTotal()));
+        response.setMaxError(files.maxError());
+        response.setFiles(fileEntries);
+        response.setDownloaders(downloaderEntries);
+        return response;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreSnapshots() {
+        try {
+            Map<String, HeavyHitterSnapshot> snapshots = snapshotRepository.findAll().stream()
+                    .collect(Collectors.toMap(HeavyHitterSnapshot::getTracker, Function.identity()));
+            long now = System.currentTimeMillis();
+            synchronized (this) {
+                for (Map.Entry<String, SlidingTopK> tracker : trackers.entrySet()) {
+                    HeavyHitterSnapshot snapshot = snapshots.get(tracker.getKey());
+                    if (snapshot != null) {
+                        tracker.getValue().restore(objectMapper.readValue(snapshot.getState(),
+                                new TypeReference<List<SlidingTopK.PaneState>>() {
+                                }), now);
+                    }
+                }
+            }
+            System.out.println("HEAVY-HITTERS: Restored " + snapshots.size() + " tracker snapshots");
+        } catch (Exception e) {
+            // Losing the sketches only loses recent history; start empty rather than fail startup
+            System.err.println("HEAVY-HITTERS: Failed to restore snapshots: " + e.getMessage());
+        }
+        restored = true;
+    }
+
+    @Scheduled(fixedDelayString = "${ddas.heavy-hitters.snapshot-interval-ms:60000}",
+            initialDelayString = "${ddas.heavy-hitters.snapshot-interval-ms:60000}")
+    public void persistSnapshots() {
+        if (!restored) {
+            return;
+        }
+        try {
+            List<HeavyHitterSnapshot> snapshots = new ArrayList<>();
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                for (Map.Entry<String, SlidingTopK> tracker : trackers.entrySet()) {
+                    HeavyHitterSnapshot snapshot = new HeavyHitterSnapshot();
+                    snapshot.setTracker(tracker.getKey());
+                    snapshot.setTakenAt(LocalDateTime.now());
+                    snapshot.setState(objectMapper.writeValueAsString(tracker.getValue().snapshot(now)));
+                    snapshots.add(snapshot);
+                }
+            }
+            snapshotRepository.saveAll(snapshots);
+        } catch (Exception e) {
+            System.err.println("HEAVY-HITTERS: Failed to persist snapshots: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        persistSnapshots();
+    }
+
+    /**
+     * An entry is guaranteed to belong to the true top list when even its lower
+     * bound beats the count of the first entry left out.
+     */
+    static List<HeavyHittersResponse.Entry> toEntries(SpaceSavingSketch sketch, int limit) {
+        List<SpaceSavingSketch.Entry> top = sketch.top(limit + 1);
+        long cutoff = top.size() > limit ? top.get(limit).count() : 0;
+        List<HeavyHittersResponse.Entry> entries = new ArrayList<>();
+        for (SpaceSavingSketch.Entry e : top.subList(0, Math.min(limit, top.size()))) {
+            HeavyHittersResponse.Entry entry = new HeavyHittersResponse.Entry();
+            entry.setKey(e.key());
+            entry.setCount(e.count());
+            entry.setMinCount(e.guaranteedCount());
+            entry.setGuaranteed(e.guaranteedCount() >= cutoff);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static String trackerName(String kind, Window window) {
+        return kind + ":" + window.name();
+    }
+}
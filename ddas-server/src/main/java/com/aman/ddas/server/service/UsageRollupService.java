@@ -0,0 +1,212 @@
+package com.aman.ddas.server.service;
+
+import com.aman.ddas.server.model.BlockedDuplicate;
+import com.aman.ddas.server.model.DownloadedFile;
+import com.aman.ddas.server.model.UsageRollup;
+import com.aman.ddas.server.repository.BlockedDuplicateRepository;
+import com.aman.ddas.server.repository.DownloadedFileRepository;
+import com.aman.ddas.server.repository.UsageRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Micro-batch aggregator behind the hourly and daily UsageRollup rows.
+ *
+ * Writes only add to an in-memory map of deltas; a scheduled flush folds the
+ * deltas into the rollup table in one transaction. If the rollup table is
+ * empty on the first flush, everything recorded before this instance started
+ * is backfilled once, so trends cover existing history too.
+ */
+@Service
+public class UsageRollupService {
+
+    private static final int DOWNLOADS = 0;
+    private static final int BYTES_DOWNLOADED = 1;
+    private static final int BLOCKED_DUPLICATES = 2;
+    private static final int BYTES_SAVED = 3;
+
+    private static final int BACKFILL_PAGE_SIZE = 1000;
+
+    private record Key(UsageRollup.Granularity granularity, LocalDateTime bucketStart,
+            UsageRollup.Dimension dimension, String dimensionKey) {
+    }
+
+    private final UsageRollupRepository rollupRepository;
+    private final DownloadedFileRepository fileRepository;
+    private final BlockedDuplicateRepository blockedRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Records at or after this instant are counted live; older ones are left to the backfill
+    private final LocalDateTime liveSince = LocalDateTime.now();
+
+    // Serializes the scheduled flush with the one on shutdown
+    private final Object flushLock = new Object();
+    private boolean backfillChecked;
+
+    // Guarded by this
+    private Map<Key, long[]> pending = new HashMap<>();
+
+    @Autowired
+    public UsageRollupService(UsageRollupRepository rollupRepository, DownloadedFileRepository fileRepository,
+            BlockedDuplicateRepository blockedRepository, TransactionTemplate transactionTemplate) {
+        this.rollupRepository = rollupRepository;
+        this.fileRepository = fileRepository;
+        this.blockedRepository = blockedRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public static LocalDateTime bucketStart(UsageRollup.Granularity granularity, LocalDateTime timestamp) {
+        return timestamp.truncatedTo(granularity == UsageRollup.Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+    }
+
+    public synchronized void recordDownload(DownloadedFile file) {
+        long bytes = file.getContentLength() != null ? file.getContentLength() : 0;
+        accumulate(pending, file.getDownloadTimestamp(), file.getDownloaderId(), file.getDesktopId(),
+                DOWNLOADS, BYTES_DOWNLOADED, bytes);
+    }
+
+    /**
+     * The request that was blocked carries no desktop, so the saving is
+     * attributed to the desktop holding the original copy.
+     */
+    public synchronized void recordBlockedDuplicate(BlockedDuplicate blocked, DownloadedFile original) {
+        long bytes = blocked.getFileSize() != null ? blocked.getFileSize() : 0;
+        accumulate(pending, blocked.getBlockedTimestamp(), blocked.getDownloaderId(),
+                original != null ? original.getDesktopId() : null, BLOCKED_DUPLICATES, BYTES_SAVED, bytes);
+    }
+
+    @Scheduled(fixedDelayString = "${ddas.rollup.flush-interval-ms:10000}",
+            initialDelayString = "${ddas.rollup.flush-interval-ms:10000}")
+    public void flush() {
+        synchronized (flushLock) {
+            Map<Key, long[]> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new HashMap<>();
+            }
+
+            try {
+                if (!backfillChecked) {
+                    if (rollupRepository.count() == 0) {
+                        // Only merged once complete, so a failed scan is simply retried
+                        backfill().forEach((key, delta) -> add(batch, key, delta));
+                    }
+                    backfillChecked = true;
+                }
+                if (!batch.isEmpty()) {
+                    transactionTemplate.executeWithoutResult(status -> batch.forEach(this::apply));
+                }
+            } catch (RuntimeException e) {
+                System.err.println("ROLLUP: Flush failed, keeping " + batch.size() + " buckets for retry: "
+                        + e.getMessage());
+                synchronized (this) {
+                    batch.forEach((key, delta) -> add(pending, key, delta));
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void apply(Key key, long[] delta) {
+        UsageRollup rollup = rollupRepository
+                .findByGranularityAndDimensionAndDimensionKeyAndBucketStart(key.granularity(), key.dimension(),
+                        key.dimensionKey(), key.bucketStart())
+                .orElseGet(() -> {
+                    UsageRollup created = new UsageRollup();
+                    created.setGranularity(key.granularity());
+                    created.setBucketStart(key.bucketStart());
+                    created.setDimension(key.dimension());
+                    created.setDimensionKey(key.dimensionKey());
+                    return created;
+                });
+        rollup.setDownloads(rollup.getDownloads() + delta[DOWNLOADS]);
+        rollup.setBytesDownloaded(rollup.getBytesDownloaded() + delta[BYTES_DOWNLOADED]);
+        rollup.setBlockedDuplicates(rollup.getBlockedDuplicates() + delta[BLOCKED_DUPLICATES]);
+        rollup.setBytesSaved(rollup.getBytesSaved() + delta[BYTES_SAVED]);
+        rollupRepository.save(rollup);
+    }
+
+    private Map<Key, long[]> backfill() {
+        Map<Key, long[]> batch = new HashMap<>();
+        System.out.println("ROLLUP: Rollup table is empty, backfilling records before " + liveSince);
+        Limit pageSize = Limit.of(BACKFILL_PAGE_SIZE);
+
+        // Keyset paging: each page starts after the last id seen, so the scan stays linear in the table size
+        long lastId = 0;
+        while (true) {
+            List<DownloadedFile> files = fileRepository
+                    .findByDownloadTimestampBeforeAndIdGreaterThanOrderByIdAsc(liveSince, lastId, pageSize);
+            for (DownloadedFile file : files) {
+                long bytes = file.getContentLength() != null ? file.getContentLength() : 0;
+                accumulate(batch, file.getDownloadTimestamp(), file.getDownloaderId(), file.getDesktopId(),
+                        DOWNLOADS, BYTES_DOWNLOADED, bytes);
+            }
+            if (files.size() < BACKFILL_PAGE_SIZE) {
+                break;
+            }
+            lastId = files.get(files.size() - 1).getId();
+        }
+
+        lastId = 0;
+        while (true) {
+            List<BlockedDuplicate> blocked = blockedRepository
+                    .findByBlockedTimestampBeforeAndIdGreaterThanOrderByIdAsc(liveSince, lastId, pageSize);
+            Set<Long> originalIds = blocked.stream().map(BlockedDuplicate::getOriginalFileId)
+                    .filter(id -> id != null).collect(Collectors.toSet());
+            Map<Long, DownloadedFile> originals = fileRepository.findAllById(originalIds).stream()
+                    .collect(Collectors.toMap(DownloadedFile::getId, Function.identity()));
+            for (BlockedDuplicate duplicate : blocked) {
+                DownloadedFile original = originals.get(duplicate.getOriginalFileId());
+                long bytes = duplicate.getFileSize() != null ? duplicate.getFileSize() : 0;
+                accumulate(batch, duplicate.getBlockedTimestamp(), duplicate.getDownloaderId(),
+                        original != null ? original.getDesktopId() : null, BLOCKED_DUPLICATES, BYTES_SAVED, bytes);
+            }
+            if (blocked.size() < BACKFILL_PAGE_SIZE) {
+                break;
+            }
+            lastId = blocked.get(blocked.size() - 1).getId();
+        }
+        return batch;
+    }
+
+    private static void accumulate(Map<Key, long[]> target, LocalDateTime timestamp, String downloaderId,
+            String desktopId, int countField, int bytesField, long bytes) {
+        long[] delta = new long[4];
+        delta[countField] = 1;
+        delta[bytesField] = bytes;
+        for (UsageRollup.Granularity granularity : UsageRollup.Granularity.values()) {
+            LocalDateTime bucket = bucketStart(granularity, timestamp);
+            add(target, new Key(granularity, bucket, UsageRollup.Dimension.DOWNLOADER, keyOrUnknown(downloaderId)),
+                    delta);
+            add(target, new Key(granularity, bucket, UsageRollup.Dimension.DESKTOP, keyOrUnknown(desktopId)), delta);
+        }
+    }
+
+    private static void add(Map<Key, long[]> target, Key key, long[] delta) {
+        long[] totals = target.computeIfAbsent(key, k -> new long[4]);
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] += delta[i];
+        }
+    }
+
+    private static String keyOrUnknown(String value) {
+        return value != null && !value.isEmpty() ? value : "Unknown";
+    }
+}
@@ -0,0 +1,120 @@
+package com.aman.ddas.server.sketch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Sliding-window heavy hitters built from a ring of Space-Saving panes.
+ *
+ * Each pane summarizes a fixed, epoch-aligned slice of time; a query merges
+ * the panes still inside the window. The window therefore slides in steps of
+ * one pane and covers between (paneCount - 1) and paneCount pane lengths.
+ * Memory is bounded by paneCount * capacity counters. Not thread-safe.
+ */
+public class SlidingTopK {
+
+    public record CounterState(String key, long count, long error) {
+    }
+
+    public record PaneState(long startMillis, long total, List<CounterState> counters) {
+    }
+
+    private static final class Pane {
+        final long startMillis;
+        final SpaceSavingSketch sketch;
+
+        Pane(long startMillis, SpaceSavingSketch sketch) {
+            this.startMillis = startMillis;
+            this.sketch = sketch;
+        }
+    }
+
+    private final int capacity;
+    private final long paneMillis;
+    private final int paneCount;
+    // Oldest first
+    private final Deque<Pane> panes = new ArrayDeque<>();
+
+    public SlidingTopK(int capacity, long paneMillis, int paneCount) {
+        this.capacity = capacity;
+        this.paneMillis = paneMillis;
+        this.paneCount = paneCount;
+    }
+
+    public void offer(String key, long nowMillis) {
+        currentPane(nowMillis).sketch.offer(key);
+    }
+
+    /** A new summary of everything inside the window at the given time. */
+    public SpaceSavingSketch window(long nowMillis) {
+        expire(nowMillis);
+        SpaceSavingSketch merged = new SpaceSavingSketch(capacity);
+        for (Pane pane : panes) {
+            merged.merge(pane.sketch);
+        }
+        return merged;
+    }
+
+    public List<PaneState> snapshot(long nowMillis) {
+        expire(nowMillis);
+        List<PaneState> states = new ArrayList<>(panes.size());
+        for (Pane pane : panes) {
+            List<CounterState> counters = pane.sketch.entries().stream()
+                    .map(e -> new CounterState(e.key(), e.count(), e.error()))
+                    .toList();
+            states.add(new PaneState(pane.startMillis, pane.sketch.getTotal(), counters));
+        }
+        return states;
+    }
+
+    /**
+     * Merges a snapshot into the current panes, so hits recorded before the
+     * restore are kept. Panes that have left the window are dropped.
+     */
+    public void restore(List<PaneState> states, long nowMillis) {
+        TreeMap<Long, Pane> byStart = new TreeMap<>();
+        for (Pane pane : panes) {
+            byStart.put(pane.startMillis, pane);
+        }
+        for (PaneState state : states) {
+            SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+            state.counters().stream().limit(capacity)
+                    .forEach(c -> sketch.restore(c.key(), c.count(), c.error()));
+            sketch.setTotal(state.total());
+            Pane live = byStart.get(state.startMillis());
+            if (live != null) {
+                live.sketch.merge(sketch);
+            } else {
+                byStart.put(state.startMillis(), new Pane(state.startMillis(), sketch));
+            }
+        }
+        panes.clear();
+        panes.addAll(byStart.values());
+        expire(nowMillis);
+    }
+
+    public long getWindowMillis() {
+        return paneMillis * paneCount;
+    }
+
+    private Pane currentPane(long nowMillis) {
+        expire(nowMillis);
+        long start = nowMillis - Math.floorMod(nowMillis, paneMillis);
+        Pane last = panes.peekLast();
+        if (last == null || last.startMillis < start) {
+            last = new Pane(start, new SpaceSavingSketch(capacity));
+            panes.addLast(last);
+        }
+        return last;
+    }
+
+    private void expire(long nowMillis) {
+        long oldestAllowed = nowMillis - Math.floorMod(nowMillis, paneMillis) - paneMillis * (paneCount - 1);
+        while (!panes.isEmpty() && panes.peekFirst().startMillis < oldestAllowed) {
+            panes.removeFirst();
+        }
+    }
+}
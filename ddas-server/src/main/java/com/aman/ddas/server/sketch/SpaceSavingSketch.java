@@ -0,0 +1,146 @@
+package com.aman.ddas.server.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-K summary (Metwally et al.) with at most {@code capacity}
+ * counters.
+ *
+ * A reported count never under-estimates the true count and over-estimates
+ * it by at most the counter's error, which is itself at most total / capacity.
+ * Any item whose true count exceeds total / capacity is guaranteed to be
+ * tracked. Not thread-safe.
+ */
+public class SpaceSavingSketch {
+
+    public record Entry(String key, long count, long error) {
+        /** Lower bound of the true count. */
+        public long guaranteedCount() {
+            return count - error;
+        }
+    }
+
+    private static final class Counter {
+        long count;
+        long error;
+
+        Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private long total;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(String key) {
+        offer(key, 1);
+    }
+
+    public void offer(String key, long weight) {
+        total += weight;
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+        } else if (counters.size() < capacity) {
+            counters.put(key, new Counter(weight, 0));
+        } else {
+            // Replace the smallest counter; its count becomes the newcomer's error.
+            // A linear scan is fine at the few hundred counters this is used with.
+            Map.Entry<String, Counter> min = null;
+            for (Map.Entry<String, Counter> candidate : counters.entrySet()) {
+                if (min == null || candidate.getValue().count < min.getValue().count) {
+                    min = candidate;
+                }
+            }
+            long minCount = min.getValue().count;
+            counters.remove(min.getKey());
+            counters.put(key, new Counter(minCount + weight, minCount));
+        }
+    }
+
+    /**
+     * Adds another summary into this one (used to combine the panes of a
+     * window). An item missing from a full summary may still have occurred up
+     * to that summary's minimum count times, so that minimum is added to both
+     * its count and its error.
+     */
+    public void merge(SpaceSavingSketch other) {
+        long thisMin = missingItemBound();
+        long otherMin = other.missingItemBound();
+
+        Map<String, Counter> merged = new HashMap<>();
+        counters.forEach((key, counter) -> {
+            Counter theirs = other.counters.get(key);
+            merged.put(key, theirs != null
+                    ? new Counter(counter.count + theirs.count, counter.error + theirs.error)
+                    : new Counter(counter.count + otherMin, counter.error + otherMin));
+        });
+        other.counters.forEach((key, theirs) -> {
+            if (!counters.containsKey(key)) {
+                merged.put(key, new Counter(theirs.count + thisMin, theirs.error + thisMin));
+            }
+        });
+
+        counters.clear();
+        merged.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Counter> e) -> e.getValue().count).reversed())
+                .limit(capacity)
+                .forEach(e -> counters.put(e.getKey(), e.getValue()));
+        total += other.total;
+    }
+
+    /** Entries ordered by count, highest first. */
+    public List<Entry> top(int limit) {
+        return entries().stream().limit(limit).toList();
+    }
+
+    public List<Entry> entries() {
+        List<Entry> result = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> result.add(new Entry(key, counter.count, counter.error)));
+        result.sort(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::key));
+        return result;
+    }
+
+    /** Restores a counter from a snapshot; bypasses the capacity check and does not change the total. */
+    void restore(String key, long count, long error) {
+        counters.put(key, new Counter(count, error));
+    }
+
+    void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Upper bound on the over-estimate of any reported count. */
+    public long maxError() {
+        return total / capacity;
+    }
+
+    private long missingItemBound() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        return counters.values().stream().mapToLong(c -> c.count).min().orElse(0);
+    }
+}
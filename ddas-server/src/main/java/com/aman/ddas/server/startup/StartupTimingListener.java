@@ -0,0 +1,65 @@
+package com.aman.ddas.server.startup;
+
+import org.springframework.boot.context.event.ApplicationContextInitializedEvent;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.event.ApplicationPreparedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.event.ApplicationStartingEvent;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints how long each startup phase took, from JVM launch until the
+ * application is ready (after warm-up). Registered in main() because the
+ * earliest events fire before any bean exists.
+ */
+public class StartupTimingListener implements ApplicationListener<ApplicationEvent> {
+
+    private record Phase(String label, long nanos) {
+    }
+
+    private final List<Phase> phases = new ArrayList<>();
+    private long jvmToMainMillis;
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof ApplicationStartingEvent) {
+            jvmToMainMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            mark("starting");
+        } else if (event instanceof ApplicationEnvironmentPreparedEvent) {
+            mark("environment prepared");
+        } else if (event instanceof ApplicationContextInitializedEvent) {
+            mark("context initialized");
+        } else if (event instanceof ApplicationPreparedEvent) {
+            mark("bean definitions loaded");
+        } else if (event instanceof WebServerInitializedEvent) {
+            mark("beans created, web server started");
+        } else if (event instanceof ApplicationStartedEvent) {
+            mark("context refreshed");
+        } else if (event instanceof ApplicationReadyEvent) {
+            mark("runners and warm-up finished");
+            print();
+        }
+    }
+
+    private void mark(String label) {
+        phases.add(new Phase(label, System.nanoTime()));
+    }
+
+    private void print() {
+        System.out.println("STARTUP: Timing breakdown");
+        System.out.println(String.format("STARTUP:   %-36s %7d ms", "JVM launch to main", jvmToMainMillis));
+        for (int i = 1; i < phases.size(); i++) {
+            System.out.println(String.format("STARTUP:   %-36s %7d ms", phases.get(i).label(),
+                    (phases.get(i).nanos() - phases.get(i - 1).nanos()) / 1_000_000));
+        }
+        long total = jvmToMainMillis + (phases.get(phases.size() - 1).nanos() - phases.get(0).nanos()) / 1_000_000;
+        System.out.println(String.format("STARTUP:   %-36s %7d ms", "total, JVM launch to ready", total));
+    }
+}
@@ -0,0 +1,181 @@
+package com.aman.ddas.server.startup;
+
+import com.aman.ddas.server.model.DownloadedFile;
+import com.aman.ddas.server.repository.DownloadedFileRepository;
+import com.aman.ddas.server.service.DuplicateKeyCache;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded warm-up phase run before the application reports itself ready.
+ *
+ * Spring Boot only switches readiness to ACCEPTING_TRAFFIC after all runners
+ * return, so /actuator/health/readiness keeps failing until this is done.
+ * It preloads the most recent files into the duplicate key cache in parallel
+ * pages, then sends check requests that are guaranteed to miss through the
+ * real HTTP endpoint so every lookup query, Jackson and the MVC stack are
+ * JIT-compiled and initialized before the first real check arrives. Those
+ * checks carry a per-boot token so the controller keeps them out of admission
+ * control and the trace.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final String WARMUP_HEADER = "X-DDAS-Warmup";
+
+    private final ConfigurableApplicationContext context;
+    private final DownloadedFileRepository repository;
+    private final DuplicateKeyCache duplicateKeyCache;
+
+    // Random per boot so clients cannot pass their checks off as warm-up traffic
+    private final String warmupToken = UUID.randomUUID().toString();
+
+    @Value("${ddas.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ddas.warmup.preload-files:10000}")
+    private int preloadFiles;
+
+    @Value("${ddas.warmup.page-size:1000}")
+    private int pageSize;
+
+    @Value("${ddas.warmup.parallelism:4}")
+    private int parallelism;
+
+    @Value("${ddas.warmup.check-requests:200}")
+    private int checkRequests;
+
+    @Value("${ddas.warmup.timeout-ms:30000}")
+    private long timeoutMillis;
+
+    public WarmupRunner(ConfigurableApplicationContext context, DownloadedFileRepository repository,
+            DuplicateKeyCache duplicateKeyCache) {
+        this.context = context;
+        this.repository = repository;
+        this.duplicateKeyCache = duplicateKeyCache;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        try {
+            preloadRecentFiles(deadline);
+            exerciseCheckPath(deadline);
+        } catch (Exception e) {
+            // A failed warm-up only costs latency; never keep the server out of rotation for it
+            System.err.println("WARMUP: Warm-up aborted: " + e.getMessage());
+        }
+    }
+
+    /** True for the check requests this runner sends itself. */
+    public boolean isWarmupRequest(HttpServletRequest request) {
+        return warmupToken.equals(request.getHeader(WARMUP_HEADER));
+    }
+
+    private void preloadRecentFiles(long deadline) throws InterruptedException {
+        long start = System.nanoTime();
+        int pages = (preloadFiles + pageSize - 1) / pageSize;
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int page = 0; page < pages; page++) {
+            PageRequest request = PageRequest.of(page, pageSize);
+            tasks.add(() -> {
+                List<DownloadedFile> files = repository.findAllByOrderByDownloadTimestampDesc(request);
+                files.forEach(duplicateKeyCache::put);
+                return files.size();
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        int loaded = 0;
+        try {
+            // invokeAll cancels whatever has not finished by the deadline
+            for (Future<Integer> future : executor.invokeAll(tasks, remaining(deadline), TimeUnit.NANOSECONDS)) {
+                if (!future.isCancelled()) {
+                    try {
+                        loaded += future.get();
+                    } catch (Exception e) {
+                        System.err.println("WARMUP: Failed to preload page: " + e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        System.out.println("WARMUP: Preloaded " + loaded + " files (" + duplicateKeyCache.size() + " keys) in "
+                + millisSince(start) + " ms");
+    }
+
+    private void exerciseCheckPath(long deadline) throws InterruptedException {
+        String port = context.getEnvironment().getProperty("local.server.port");
+        if (port == null) {
+            return;
+        }
+        HttpClient client = HttpClient.newHttpClient();
+        URI uri = URI.create("http://localhost:" + port + "/api/downloads/check");
+
+        long firstMillis = -1;
+        long lastMillis = -1;
+        int sent = 0;
+        while (sent < checkRequests && remaining(deadline) > 0) {
+            // Random keys never match, so nothing is written, but every lookup step runs
+            String key = UUID.randomUUID().toString();
+            String body = "{\"originalUrl\":\"https://warmup.invalid/" + key + "\",\"etag\":\"" + key
+                    + "\",\"contentLength\":1,\"fileName\":\"warmup-" + key + " (1).bin\"}";
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofNanos(Math.max(1, remaining(deadline))))
+                    .header("Content-Type", "application/json")
+                    .header(WARMUP_HEADER, warmupToken)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            long start = System.nanoTime();
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                System.err.println("WARMUP: Check request failed: " + e.getMessage());
+                break;
+            }
+            lastMillis = millisSince(start);
+            if (firstMillis < 0) {
+                firstMillis = lastMillis;
+            }
+            sent++;
+        }
+        System.out.println("WARMUP: Sent " + sent + " check requests, first took " + firstMillis
+                + " ms, last took " + lastMillis + " ms");
+    }
+
+    private static long remaining(long deadline) {
+        return deadline - System.nanoTime();
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,8 @@
+-- HeavyHitterSnapshot (persisted heavy-hitter sketches). Apply before deploying with the prod profile,
+-- which validates the schema instead of creating it. Safe to run more than once.
+create table if not exists heavy_hitter_snapshot (
+    taken_at timestamp(6) not null,
+    tracker varchar(64) not null,
+    state varchar(4194304) not null,
+    primary key (tracker)
+);
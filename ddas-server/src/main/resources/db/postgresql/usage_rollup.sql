@@ -0,0 +1,17 @@
+-- UsageRollup (hourly and daily usage totals). Apply before deploying with the prod profile,
+-- which validates the schema instead of creating it. Safe to run more than once.
+create table if not exists usage_rollup (
+    blocked_duplicates bigint not null,
+    bucket_start timestamp(6) not null,
+    bytes_downloaded bigint not null,
+    bytes_saved bigint not null,
+    downloads bigint not null,
+    id bigint generated by default as identity,
+    dimension varchar(16) not null check (dimension in ('DOWNLOADER','DESKTOP')),
+    granularity varchar(16) not null check (granularity in ('HOUR','DAY')),
+    dimension_key varchar(255) not null,
+    primary key (id),
+    constraint uk_usage_rollup_bucket unique (granularity, dimension, dimension_key, bucket_start)
+);
+
+create index if not exists idx_usage_rollup_range on usage_rollup (granularity, dimension, bucket_start);
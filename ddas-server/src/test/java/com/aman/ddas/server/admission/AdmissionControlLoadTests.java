@@ -0,0 +1,95 @@
+package com.aman.ddas.server.admission;
+
+import com.aman.ddas.server.dto.DuplicateCheckRequest;
+import com.aman.ddas.server.loadtest.LatencyStats;
+import com.aman.ddas.server.loadtest.TraceEvent;
+import com.aman.ddas.server.loadtest.TraceReplayer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Overloads /check against a slow database with a tiny connection pool and
+ * checks that admission control keeps p99 bounded by answering the excess
+ * from cache instead of queueing it for a connection.
+ * Timing-dependent and slow, so it only runs with mvn -Pload-tests test.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.hikari.maximum-pool-size=2",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+				+ "com.aman.ddas.server.admission.AdmissionControlLoadTests$SlowStatementInspector",
+		// All checks come from one address; only the concurrency limit is under test here
+		"ddas.admission.per-downloader.rate=100000",
+		"ddas.admission.per-downloader.burst=100000",
+		"ddas.admission.concurrency.initial=4",
+		"ddas.admission.concurrency.max=20",
+		"ddas.admission.concurrency.target-latency-ms=100" })
+class AdmissionControlLoadTests {
+
+	/** Each statement holds its connection for 10 ms, so two connections serve about 50 checks/s. */
+	public static class SlowStatementInspector implements StatementInspector {
+		@Override
+		public String inspect(String sql) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return sql;
+		}
+	}
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void p99StaysBoundedUnderThreeTimesCapacity() throws InterruptedException {
+		TraceReplayer.Settings settings = new TraceReplayer.Settings();
+		settings.setMode(TraceReplayer.Mode.OPEN);
+		settings.setRate(150);
+		settings.setConcurrency(2);
+		TraceReplayer replayer = new TraceReplayer("http://localhost:" + port, objectMapper, settings);
+
+		// JIT-compile the request path first so the run measures queueing, not a cold JVM
+		replayer.prime(missingChecks("warmup", 300));
+		TraceReplayer.Report report = replayer.replay(missingChecks("overload", 600));
+
+		LatencyStats checks = report.getLatencies().get(TraceEvent.Endpoint.CHECK);
+		assertEquals(0, checks.errors());
+		assertTrue(meterRegistry.get("ddas.check.shed").tag("reason", "concurrency").counter().count() > 0,
+				"expected some checks to be shed");
+		// Unbounded queueing would push p99 to several seconds by the end of the run
+		assertTrue(checks.percentileMillis(0.99) < 1500, "p99 was " + checks.percentileMillis(0.99) + " ms");
+	}
+
+	private static List<TraceEvent> missingChecks(String prefix, int count) {
+		List<TraceEvent> events = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			DuplicateCheckRequest request = new DuplicateCheckRequest();
+			request.setOriginalUrl("https://" + prefix + ".invalid/" + i);
+			request.setEtag("\"" + prefix + "-" + i + "\"");
+			request.setContentLength(1024L);
+			request.setFileName(prefix + "-" + i + ".bin");
+			events.add(TraceEvent.check(0, request));
+		}
+		return events;
+	}
+}
@@ -0,0 +1,109 @@
+package com.aman.ddas.server.admission;
+
+import com.aman.ddas.server.service.AdmissionControlService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlTests {
+
+	private static final long MS = 1_000_000;
+	private static final long TARGET = 100 * MS;
+
+	@Test
+	void tokenBucketRefillsAtItsRateUpToTheBurst() {
+		// 10 tokens per second, burst of 5
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+		for (int i = 0; i < 5; i++) {
+			assertTrue(bucket.tryConsume(0));
+		}
+		assertFalse(bucket.tryConsume(0));
+
+		// 100 ms buys exactly one token
+		assertFalse(bucket.tryConsume(99 * MS));
+		assertTrue(bucket.tryConsume(100 * MS));
+		assertFalse(bucket.tryConsume(100 * MS));
+
+		// A long idle period refills to the burst and no further
+		long later = 10_000 * MS;
+		assertTrue(bucket.isFull(later));
+		for (int i = 0; i < 5; i++) {
+			assertTrue(bucket.tryConsume(later));
+		}
+		assertFalse(bucket.tryConsume(later));
+
+		bucket.refund();
+		assertTrue(bucket.tryConsume(later));
+	}
+
+	@Test
+	void limitGrowsOnlyWhileBusyAndFast() {
+		AdaptiveConcurrencyLimiter idle = new AdaptiveConcurrencyLimiter(10, 2, 20, TARGET, 0.9, 0);
+		for (int i = 0; i < 100; i++) {
+			assertTrue(idle.tryAcquire());
+			idle.release(MS, i * MS);
+		}
+		// One request at a time never uses the limit, so there is no reason to raise it
+		assertEquals(10, idle.getLimit());
+
+		AdaptiveConcurrencyLimiter busy = new AdaptiveConcurrencyLimiter(4, 2, 6, TARGET, 0.9, 0);
+		for (int round = 0; round < 50; round++) {
+			int admitted = 0;
+			while (busy.tryAcquire()) {
+				admitted++;
+			}
+			assertEquals(busy.getLimit(), admitted);
+			for (int i = 0; i < admitted; i++) {
+				busy.release(MS, round * MS);
+			}
+		}
+		// Grew past the initial limit and stopped at the maximum
+		assertEquals(6, busy.getLimit());
+		assertEquals(0, busy.getInFlight());
+	}
+
+	@Test
+	void slowRequestsCutTheLimitAtMostOncePerPeriod() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 20, TARGET, 0.5, 0);
+
+		slowRelease(limiter, 0);
+		assertEquals(5, limiter.getLimit());
+		// Slow completions from the same burst count as one congestion signal
+		slowRelease(limiter, 50 * MS);
+		assertEquals(5, limiter.getLimit());
+		slowRelease(limiter, TARGET);
+		assertEquals(2, limiter.getLimit());
+		// Never below the minimum
+		slowRelease(limiter, 2 * TARGET);
+		assertEquals(2, limiter.getLimit());
+	}
+
+	@Test
+	void tokenIsRefundedWhenTheConcurrencyLimitRejects() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		// One slot in total and one token per client that effectively never refills
+		AdmissionControlService admission = new AdmissionControlService(registry, true, 0.001, 1, 1, 1, 1, 200, 0.9);
+
+		AdmissionControlService.Permit first = admission.tryAcquire("downloader:alice");
+		assertTrue(first.isAdmitted());
+		assertFalse(admission.tryAcquire("downloader:bob").isAdmitted());
+		first.close();
+
+		// bob's token was given back, alice's was spent on a check that ran
+		AdmissionControlService.Permit second = admission.tryAcquire("downloader:bob");
+		assertTrue(second.isAdmitted());
+		second.close();
+		assertFalse(admission.tryAcquire("downloader:alice").isAdmitted());
+
+		assertEquals(1, registry.get("ddas.check.shed").tag("reason", "concurrency").counter().count());
+		assertEquals(1, registry.get("ddas.check.shed").tag("reason", "rate_limit").counter().count());
+	}
+
+	private static void slowRelease(AdaptiveConcurrencyLimiter limiter, long nowNanos) {
+		assertTrue(limiter.tryAcquire());
+		limiter.release(2 * TARGET, nowNanos);
+	}
+}
@@ -0,0 +1,76 @@
+package com.aman.ddas.server.controller;
+
+import com.aman.ddas.server.dto.TrendResponse;
+import com.aman.ddas.server.model.UsageRollup;
+import com.aman.ddas.server.repository.UsageRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardControllerTrendTests {
+
+	private final UsageRollupRepository rollupRepository = mock(UsageRollupRepository.class);
+	private final DashboardController controller = new DashboardController(null, null, rollupRepository, null);
+
+	@Test
+	void rangeIsAlignedToBucketsAndEmptyBucketsAreFilled() {
+		LocalDateTime ten = LocalDateTime.of(2026, 3, 2, 10, 0);
+		List<UsageRollupRepository.Totals> rows = List.of(totals(ten.plusHours(2), 5));
+		when(rollupRepository.sumByBucket(any(), any(), any(), any())).thenReturn(rows);
+
+		TrendResponse response = controller.getTrends(UsageRollup.Granularity.HOUR, ten.plusMinutes(20),
+				ten.plusHours(3).plusMinutes(40));
+
+		// The bucket holding "to" is included, so the range is [10:00, 14:00)
+		verify(rollupRepository).sumByBucket(UsageRollup.Granularity.HOUR, UsageRollup.Dimension.DOWNLOADER, ten,
+				ten.plusHours(4));
+		assertEquals("2026-03-02 10:00", response.getFrom());
+		assertEquals("2026-03-02 14:00", response.getTo());
+		assertEquals(4, response.getPoints().size());
+		assertEquals("2026-03-02 12:00", response.getPoints().get(2).getBucket());
+		assertEquals(5, response.getPoints().get(2).getDownloads());
+		assertEquals(0, response.getPoints().get(0).getDownloads());
+		assertEquals(0, response.getPoints().get(3).getDownloads());
+	}
+
+	@Test
+	void dailyRangeDefaultsToThirtyDays() {
+		TrendResponse response = controller.getTrends(UsageRollup.Granularity.DAY, null,
+				LocalDateTime.of(2026, 3, 10, 15, 0));
+
+		assertEquals("2026-02-09 00:00", response.getFrom());
+		assertEquals("2026-03-11 00:00", response.getTo());
+		assertEquals(30, response.getPoints().size());
+	}
+
+	@Test
+	void badRangesAreRejected() {
+		LocalDateTime now = LocalDateTime.of(2026, 3, 2, 10, 0);
+
+		ResponseStatusException reversed = assertThrows(ResponseStatusException.class,
+				() -> controller.getTrends(UsageRollup.Granularity.HOUR, now.plusDays(1), now));
+		assertEquals(HttpStatus.BAD_REQUEST, reversed.getStatusCode());
+
+		// One bucket more than 93 days of hours
+		ResponseStatusException tooLong = assertThrows(ResponseStatusException.class,
+				() -> controller.getTrends(UsageRollup.Granularity.HOUR, now.minusHours(2232), now));
+		assertEquals(HttpStatus.BAD_REQUEST, tooLong.getStatusCode());
+	}
+
+	private static UsageRollupRepository.Totals totals(LocalDateTime bucketStart, long downloads) {
+		UsageRollupRepository.Totals totals = mock(UsageRollupRepository.Totals.class);
+		when(totals.getBucketStart()).thenReturn(bucketStart);
+		when(totals.getDownloads()).thenReturn(downloads);
+		return totals;
+	}
+}
@@ -0,0 +1,73 @@
+package com.aman.ddas.server.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Shed checks must still be answered, from cache only, and say so.
+ * Every client gets a single token so its second check is always shed.
+ */
+@SpringBootTest(properties = {
+		"ddas.admission.per-downloader.rate=0.001",
+		"ddas.admission.per-downloader.burst=1" })
+@AutoConfigureMockMvc
+class DownloadControllerAdmissionTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void shedChecksAreAnsweredFromCacheAndFlaggedDegraded() throws Exception {
+		mockMvc.perform(post("/api/downloads/log").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"originalUrl\":\"https://example.com/a.zip\",\"fileName\":\"a.zip\",\"downloaderId\":\"alice\"}"))
+				.andExpect(status().isOk());
+
+		check("{\"originalUrl\":\"https://example.com/a.zip\",\"downloaderId\":\"alice\"}", null)
+				.andExpect(jsonPath("$.duplicate").value(true))
+				.andExpect(jsonPath("$.degraded").value(false));
+		// Over alice's rate: the cached file is still found
+		check("{\"originalUrl\":\"https://example.com/a.zip\",\"downloaderId\":\"alice\"}", null)
+				.andExpect(jsonPath("$.duplicate").value(true))
+				.andExpect(jsonPath("$.degraded").value(true));
+		check("{\"originalUrl\":\"https://example.com/new.zip\",\"downloaderId\":\"alice\"}", null)
+				.andExpect(jsonPath("$.duplicate").value(false))
+				.andExpect(jsonPath("$.degraded").value(true));
+	}
+
+	@Test
+	void checksWithoutDownloaderAreLimitedPerClientAddress() throws Exception {
+		String body = "{\"originalUrl\":\"https://example.com/b.zip\"}";
+
+		check(body, "198.51.100.2").andExpect(jsonPath("$.degraded").value(false));
+		// The proxy appends the address it saw; a client-supplied hop in front of it changes nothing
+		check(body, "203.0.113.7, 198.51.100.2").andExpect(jsonPath("$.degraded").value(true));
+		check(body, "198.51.100.2, 198.51.100.3").andExpect(jsonPath("$.degraded").value(false));
+	}
+
+	@Test
+	void theDefaultDownloaderIdIsLimitedPerClientAddress() throws Exception {
+		// Every unconfigured extension sends this id
+		String body = "{\"originalUrl\":\"https://example.com/c.zip\",\"downloaderId\":\"default-user\"}";
+
+		check(body, "192.0.2.10").andExpect(jsonPath("$.degraded").value(false));
+		check(body, "192.0.2.11").andExpect(jsonPath("$.degraded").value(false));
+		check(body, "192.0.2.10").andExpect(jsonPath("$.degraded").value(true));
+	}
+
+	private ResultActions check(String body, String forwardedFor) throws Exception {
+		var request = post("/api/downloads/check").contentType(MediaType.APPLICATION_JSON).content(body);
+		if (forwardedFor != null) {
+			request.header("X-Forwarded-For", forwardedFor);
+		}
+		return mockMvc.perform(request).andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,31 @@
+package com.aman.ddas.server.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceAnonymizerTests {
+
+	private final TraceAnonymizer anonymizer = new TraceAnonymizer("test-salt");
+
+	@Test
+	void equalValuesGetEqualTokens() {
+		assertEquals(anonymizer.token("https://example.com/a.zip"), anonymizer.token("https://example.com/a.zip"));
+		assertNotEquals(anonymizer.token("https://example.com/a.zip"), anonymizer.token("https://example.com/b.zip"));
+		assertNull(anonymizer.token(null));
+	}
+
+	@Test
+	void fileNameKeepsBrowserSuffixAndExtension() {
+		String original = anonymizer.anonymizeFileName("quarterly report.docx");
+		String variant = anonymizer.anonymizeFileName("quarterly report (2).docx");
+
+		assertTrue(original.endsWith(".docx"));
+		assertEquals(original.replace(".docx", " (2).docx"), variant);
+		assertFalse(original.contains("quarterly"));
+	}
+}
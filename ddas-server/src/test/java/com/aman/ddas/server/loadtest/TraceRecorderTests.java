@@ -0,0 +1,100 @@
+package com.aman.ddas.server.loadtest;
+
+import com.aman.ddas.server.dto.DuplicateCheckRequest;
+import com.aman.ddas.server.dto.LogFileRequest;
+import com.aman.ddas.server.model.DownloadedFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceRecorderTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@TempDir
+	private Path dir;
+
+	@Test
+	void offsetsKeepIncreasingAcrossRestarts() throws Exception {
+		Path trace = dir.resolve("trace.jsonl");
+		for (int run = 0; run < 2; run++) {
+			// A new recorder appending to the same file stands in for a server restart
+			TraceRecorder recorder = new TraceRecorder(objectMapper, trace.toString(), "salt");
+			recorder.recordCheck(check("https://example.com/" + run));
+			Thread.sleep(5);
+			recorder.close();
+		}
+
+		List<TraceEvent> events = read(trace);
+		assertEquals(2, events.size());
+		assertTrue(events.get(1).getOffsetMillis() > events.get(0).getOffsetMillis());
+	}
+
+	@Test
+	void filesMissingFromTheTraceAreSeededOnceAsWarmup() throws Exception {
+		Path trace = dir.resolve("trace.jsonl");
+		DownloadedFile existing = file(1L);
+		DownloadedFile loggedEarlier = file(2L);
+		TraceRecorder earlier = new TraceRecorder(objectMapper, trace.toString(), "salt");
+		earlier.recordLog(log(loggedEarlier));
+		earlier.close();
+
+		TraceRecorder recorder = new TraceRecorder(objectMapper, trace.toString(), "salt");
+		recorder.recordCheck(check(existing.getOriginalUrl()));
+		recorder.recordMatch(existing);
+		recorder.recordCheck(check(existing.getOriginalUrl()));
+		recorder.recordMatch(existing);
+		// Logged by the run before the restart, so already in the trace
+		recorder.recordMatch(loggedEarlier);
+		recorder.close();
+
+		List<TraceEvent> events = read(trace);
+		List<TraceEvent> seeds = events.stream().filter(TraceEvent::isWarmup).toList();
+		assertEquals(4, events.size());
+		assertEquals(1, seeds.size());
+		assertEquals(TraceEvent.Endpoint.LOG, seeds.get(0).getEndpoint());
+		// Anonymized the same way as the checks, so the replayed check still matches it
+		assertEquals(events.get(1).getCheck().getOriginalUrl(), seeds.get(0).getLog().getOriginalUrl());
+		assertFalse(seeds.get(0).getLog().getOriginalUrl().contains("example.com"));
+	}
+
+	private List<TraceEvent> read(Path trace) throws Exception {
+		List<TraceEvent> events = new ArrayList<>();
+		for (String line : Files.readAllLines(trace)) {
+			events.add(objectMapper.readValue(line, TraceEvent.class));
+		}
+		return events;
+	}
+
+	private static DuplicateCheckRequest check(String url) {
+		DuplicateCheckRequest request = new DuplicateCheckRequest();
+		request.setOriginalUrl(url);
+		return request;
+	}
+
+	private static LogFileRequest log(DownloadedFile file) {
+		LogFileRequest request = new LogFileRequest();
+		request.setOriginalUrl(file.getOriginalUrl());
+		request.setFileName(file.getFileName());
+		return request;
+	}
+
+	private static DownloadedFile file(Long id) {
+		DownloadedFile file = new DownloadedFile();
+		file.setId(id);
+		file.setOriginalUrl("https://example.com/file-" + id);
+		file.setFileName("file-" + id + ".zip");
+		file.setDownloadTimestamp(LocalDateTime.now().minusDays(1));
+		return file;
+	}
+}
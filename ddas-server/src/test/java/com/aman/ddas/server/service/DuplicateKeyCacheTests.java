@@ -0,0 +1,79 @@
+package com.aman.ddas.server.service;
+
+import com.aman.ddas.server.model.DownloadedFile;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateKeyCacheTests {
+
+	@Test
+	void leastRecentlyUsedKeysAreEvictedAtCapacity() {
+		// Each file takes three keys, so six fit two files
+		DuplicateKeyCache cache = new DuplicateKeyCache(6);
+		DownloadedFile first = file(1L, "a.zip", "https://example.com/a.zip", "\"a\"");
+		DownloadedFile second = file(2L, "b.zip", "https://example.com/b.zip", "\"b\"");
+		cache.put(first);
+		cache.put(second);
+
+		// Touch the first file's URL key so that the first ETag key is the eldest
+		assertTrue(cache.findByOriginalUrl("https://example.com/a.zip").isPresent());
+		cache.put(file(3L, "c.zip", "https://example.com/c.zip", "\"c\""));
+
+		assertEquals(6, cache.size());
+		assertFalse(cache.findByEtagAndContentLength("\"a\"", 1024L).isPresent());
+		assertTrue(cache.findByOriginalUrl("https://example.com/a.zip").isPresent());
+		assertTrue(cache.findByFileName("c.zip").isPresent());
+	}
+
+	@Test
+	void nameKeyKeepsFirstFileWhileOtherKeysTakeNewest() {
+		DuplicateKeyCache cache = new DuplicateKeyCache(100);
+		DownloadedFile older = file(1L, "report.pdf", "https://example.com/v1/report.pdf", "\"v1\"");
+		DownloadedFile newer = file(2L, "report.pdf", "https://example.com/v1/report.pdf", "\"v1\"");
+		cache.put(older);
+		cache.put(newer);
+
+		// Matches the database fallback, findFirstByFileName
+		assertEquals(1L, cache.findByFileName("report.pdf").get().getId());
+		assertEquals(2L, cache.findByOriginalUrl("https://example.com/v1/report.pdf").get().getId());
+		assertEquals(2L, cache.findByEtagAndContentLength("\"v1\"", 1024L).get().getId());
+	}
+
+	@Test
+	void missesAreNeverCached() {
+		DuplicateKeyCache cache = new DuplicateKeyCache(100);
+
+		assertFalse(cache.findByOriginalUrl("https://example.com/missing.zip").isPresent());
+		assertFalse(cache.findByFileName("missing.zip").isPresent());
+		assertFalse(cache.findByEtagAndContentLength("\"missing\"", 1L).isPresent());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void evictDropsEveryKeyOfTheFile() {
+		DuplicateKeyCache cache = new DuplicateKeyCache(100);
+		DownloadedFile kept = file(1L, "a.zip", "https://example.com/a.zip", "\"a\"");
+		DownloadedFile deleted = file(2L, "b.zip", "https://example.com/b.zip", "\"b\"");
+		cache.put(kept);
+		cache.put(deleted);
+
+		cache.evict(deleted);
+
+		assertEquals(3, cache.size());
+		assertFalse(cache.findByFileName("b.zip").isPresent());
+		assertTrue(cache.findByFileName("a.zip").isPresent());
+	}
+
+	private static DownloadedFile file(Long id, String name, String url, String etag) {
+		DownloadedFile file = new DownloadedFile();
+		file.setId(id);
+		file.setFileName(name);
+		file.setOriginalUrl(url);
+		file.setEtag(etag);
+		file.setContentLength(1024L);
+		return file;
+	}
+}
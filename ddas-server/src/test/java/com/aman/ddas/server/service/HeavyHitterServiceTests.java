@@ -0,0 +1,94 @@
+package com.aman.ddas.server.service;
+
+import com.aman.ddas.server.dto.HeavyHittersResponse;
+import com.aman.ddas.server.model.DownloadedFile;
+import com.aman.ddas.server.repository.DownloadedFileRepository;
+import com.aman.ddas.server.repository.HeavyHitterSnapshotRepository;
+import com.aman.ddas.server.sketch.SpaceSavingSketch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class HeavyHitterServiceTests {
+
+	@Autowired
+	private DownloadedFileRepository fileRepository;
+
+	@Autowired
+	private HeavyHitterSnapshotRepository snapshotRepository;
+
+	@Test
+	void snapshotsSurviveARestartAndMergeWithLiveHits() {
+		DownloadedFile report = fileRepository.save(file("report.pdf"));
+		DownloadedFile setup = fileRepository.save(file("setup.exe"));
+
+		HeavyHitterService before = newService();
+		before.restoreSnapshots();
+		before.recordDuplicate(report, "alice");
+		before.recordDuplicate(report, "alice");
+		before.recordDuplicate(setup, "bob");
+		before.persistSnapshots();
+		assertEquals(6, snapshotRepository.count());
+
+		HeavyHitterService after = newService();
+		// Recorded after the web server started but before the application was ready
+		after.recordDuplicate(report, "carol");
+		after.restoreSnapshots();
+
+		HeavyHittersResponse day = after.getHeavyHitters(HeavyHitterService.Window.DAY, 5);
+		assertEquals(4, day.getTotalDuplicates());
+		HeavyHittersResponse.Entry top = day.getFiles().get(0);
+		assertEquals(String.valueOf(report.getId()), top.getKey());
+		assertEquals("report.pdf", top.getLabel());
+		assertEquals(3, top.getCount());
+		assertEquals("alice", day.getDownloaders().get(0).getKey());
+		assertEquals(3, day.getDownloaders().size());
+	}
+
+	@Test
+	void onlyEntriesWhoseLowerBoundBeatsTheCutoffAreGuaranteed() {
+		SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+		for (int i = 0; i < 4; i++) {
+			sketch.offer("x");
+		}
+		sketch.offer("y");
+		sketch.offer("y");
+		sketch.offer("z");
+		// Evicts z, so w is counted 2 with an error of 1
+		sketch.offer("w");
+
+		List<HeavyHittersResponse.Entry> entries = HeavyHitterService.toEntries(sketch, 2);
+		assertEquals(2, entries.size());
+		assertEquals("x", entries.get(0).getKey());
+		assertTrue(entries.get(0).isGuaranteed());
+		// Its lower bound of 1 does not beat y's count of 2, the first entry left out
+		assertEquals("w", entries.get(1).getKey());
+		assertEquals(1, entries.get(1).getMinCount());
+		assertFalse(entries.get(1).isGuaranteed());
+
+		// With nothing left out every entry is guaranteed
+		assertTrue(HeavyHitterService.toEntries(sketch, 3).stream()
+				.allMatch(HeavyHittersResponse.Entry::isGuaranteed));
+	}
+
+	private HeavyHitterService newService() {
+		return new HeavyHitterService(fileRepository, snapshotRepository, new ObjectMapper(), 16);
+	}
+
+	private static DownloadedFile file(String name) {
+		DownloadedFile file = new DownloadedFile();
+		file.setOriginalUrl("https://example.com/" + name);
+		file.setFileName(name);
+		file.setDownloadTimestamp(LocalDateTime.now());
+		return file;
+	}
+}
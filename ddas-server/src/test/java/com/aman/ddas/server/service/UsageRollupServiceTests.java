@@ -0,0 +1,185 @@
+package com.aman.ddas.server.service;
+
+import com.aman.ddas.server.model.BlockedDuplicate;
+import com.aman.ddas.server.model.DownloadedFile;
+import com.aman.ddas.server.model.UsageRollup;
+import com.aman.ddas.server.repository.BlockedDuplicateRepository;
+import com.aman.ddas.server.repository.DownloadedFileRepository;
+import com.aman.ddas.server.repository.UsageRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@DataJpaTest
+class UsageRollupServiceTests {
+
+	private static final LocalDateTime TEN_FIFTEEN = LocalDateTime.of(2026, 3, 2, 10, 15);
+
+	@Autowired
+	private UsageRollupRepository rollupRepository;
+
+	@Autowired
+	private DownloadedFileRepository fileRepository;
+
+	@Autowired
+	private BlockedDuplicateRepository blockedRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void eventsAreSplitPerGranularityAndDimension() {
+		UsageRollupService service = newService(new TransactionTemplate(transactionManager));
+		service.recordDownload(file("user-a", "desk-1", 100, TEN_FIFTEEN));
+		service.recordDownload(file("user-b", "desk-1", 50, TEN_FIFTEEN.plusMinutes(30)));
+		service.recordDownload(file("user-a", "desk-2", 10, TEN_FIFTEEN.plusMinutes(50)));
+		service.recordBlockedDuplicate(blocked("user-a", 100, TEN_FIFTEEN.plusMinutes(15)),
+				file("user-c", "desk-1", 100, TEN_FIFTEEN));
+		service.flush();
+
+		// HOUR: user-a@10, user-b@10, user-a@11, desk-1@10, desk-2@11; DAY: user-a, user-b, desk-1, desk-2
+		assertEquals(9, rollupRepository.count());
+		UsageRollup userAtTen = rollup(UsageRollup.Granularity.HOUR, UsageRollup.Dimension.DOWNLOADER, "user-a",
+				TEN_FIFTEEN.withMinute(0));
+		assertEquals(1, userAtTen.getDownloads());
+		assertEquals(100, userAtTen.getBytesDownloaded());
+		assertEquals(1, userAtTen.getBlockedDuplicates());
+		assertEquals(100, userAtTen.getBytesSaved());
+		assertEquals(1, rollup(UsageRollup.Granularity.HOUR, UsageRollup.Dimension.DOWNLOADER, "user-a",
+				TEN_FIFTEEN.withMinute(0).plusHours(1)).getDownloads());
+
+		UsageRollup userDay = rollup(UsageRollup.Granularity.DAY, UsageRollup.Dimension.DOWNLOADER, "user-a",
+				TEN_FIFTEEN.toLocalDate().atStartOfDay());
+		assertEquals(2, userDay.getDownloads());
+		assertEquals(110, userDay.getBytesDownloaded());
+		// The saving goes to the desktop holding the original copy
+		UsageRollup desktopDay = rollup(UsageRollup.Granularity.DAY, UsageRollup.Dimension.DESKTOP, "desk-1",
+				TEN_FIFTEEN.toLocalDate().atStartOfDay());
+		assertEquals(2, desktopDay.getDownloads());
+		assertEquals(150, desktopDay.getBytesDownloaded());
+		assertEquals(100, desktopDay.getBytesSaved());
+
+		// A later flush adds to the existing rows
+		service.recordDownload(file("user-a", "desk-1", 5, TEN_FIFTEEN));
+		service.flush();
+		assertEquals(9, rollupRepository.count());
+		assertEquals(3, rollup(UsageRollup.Granularity.DAY, UsageRollup.Dimension.DOWNLOADER, "user-a",
+				TEN_FIFTEEN.toLocalDate().atStartOfDay()).getDownloads());
+	}
+
+	@Test
+	void failedFlushKeepsDeltasForRetry() {
+		UsageRollupService service = newService(new FailingOnceTransactionTemplate(transactionManager));
+		service.recordDownload(file("user-a", "desk-1", 100, TEN_FIFTEEN));
+
+		service.flush();
+		assertEquals(0, rollupRepository.count());
+
+		service.recordDownload(file("user-a", "desk-1", 20, TEN_FIFTEEN));
+		service.flush();
+		UsageRollup day = rollup(UsageRollup.Granularity.DAY, UsageRollup.Dimension.DOWNLOADER, "user-a",
+				TEN_FIFTEEN.toLocalDate().atStartOfDay());
+		assertEquals(2, day.getDownloads());
+		assertEquals(120, day.getBytesDownloaded());
+	}
+
+	@Test
+	void backfillCoversOnlyOlderRecordsAndOnlyAnEmptyTable() {
+		LocalDateTime old = LocalDateTime.now().minusDays(2);
+		// More than one backfill page
+		List<DownloadedFile> history = new ArrayList<>();
+		for (int i = 0; i < 1_100; i++) {
+			history.add(file("old", "desk-1", 1, old));
+		}
+		List<DownloadedFile> saved = fileRepository.saveAll(history);
+		BlockedDuplicate oldBlocked = blocked("old", 1, old);
+		oldBlocked.setOriginalFileId(saved.get(0).getId());
+		blockedRepository.save(oldBlocked);
+
+		UsageRollupService service = newService(new TransactionTemplate(transactionManager));
+		// Logged after the service started: counted live, so the backfill must skip it
+		DownloadedFile live = fileRepository.save(file("live", "desk-1", 1, LocalDateTime.now().plusSeconds(1)));
+		service.recordDownload(live);
+		service.flush();
+
+		Map<String, UsageRollupRepository.Totals> totals = downloaderTotals();
+		assertEquals(1_100, totals.get("old").getDownloads());
+		assertEquals(1, totals.get("old").getBlockedDuplicates());
+		assertEquals(1, totals.get("live").getDownloads());
+
+		// After a restart the table is no longer empty, so nothing is backfilled twice
+		fileRepository.save(file("late", "desk-1", 1, old));
+		newService(new TransactionTemplate(transactionManager)).flush();
+		totals = downloaderTotals();
+		assertEquals(1_100, totals.get("old").getDownloads());
+		assertFalse(totals.containsKey("late"));
+	}
+
+	private UsageRollupService newService(TransactionTemplate transactionTemplate) {
+		return new UsageRollupService(rollupRepository, fileRepository, blockedRepository, transactionTemplate);
+	}
+
+	private UsageRollup rollup(UsageRollup.Granularity granularity, UsageRollup.Dimension dimension, String key,
+			LocalDateTime bucketStart) {
+		return rollupRepository
+				.findByGranularityAndDimensionAndDimensionKeyAndBucketStart(granularity, dimension, key, bucketStart)
+				.orElseThrow();
+	}
+
+	private Map<String, UsageRollupRepository.Totals> downloaderTotals() {
+		return rollupRepository.sumByDimensionKey(UsageRollup.Granularity.DAY, UsageRollup.Dimension.DOWNLOADER,
+				LocalDateTime.now().minusDays(7), LocalDateTime.now().plusDays(1)).stream()
+				.collect(Collectors.toMap(UsageRollupRepository.Totals::getDimensionKey, t -> t));
+	}
+
+	private static DownloadedFile file(String downloaderId, String desktopId, long size, LocalDateTime timestamp) {
+		DownloadedFile file = new DownloadedFile();
+		file.setOriginalUrl("https://example.com/" + downloaderId);
+		file.setFileName(downloaderId + ".bin");
+		file.setContentLength(size);
+		file.setDownloaderId(downloaderId);
+		file.setDesktopId(desktopId);
+		file.setDownloadTimestamp(timestamp);
+		return file;
+	}
+
+	private static BlockedDuplicate blocked(String downloaderId, long size, LocalDateTime timestamp) {
+		BlockedDuplicate blocked = new BlockedDuplicate();
+		blocked.setFileName(downloaderId + ".bin");
+		blocked.setFileSize(size);
+		blocked.setDownloaderId(downloaderId);
+		blocked.setBlockedTimestamp(timestamp);
+		return blocked;
+	}
+
+	/** Simulates the database being unavailable for the first flush. */
+	private static class FailingOnceTransactionTemplate extends TransactionTemplate {
+		private boolean failed;
+
+		FailingOnceTransactionTemplate(PlatformTransactionManager transactionManager) {
+			super(transactionManager);
+		}
+
+		@Override
+		public <T> T execute(TransactionCallback<T> action) {
+			if (!failed) {
+				failed = true;
+				throw new TransactionSystemException("database unavailable");
+			}
+			return super.execute(action);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.aman.ddas.server.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SlidingTopKTests {
+
+	@Test
+	void slidingWindowDropsExpiredPanes() {
+		SlidingTopK window = new SlidingTopK(10, 1_000, 3);
+		window.offer("old", 0);
+		window.offer("old", 500);
+		window.offer("new", 2_500);
+
+		assertEquals(3, window.window(2_900).getTotal());
+		// At t=3000 the window covers panes starting at 1000, 2000 and 3000
+		SpaceSavingSketch current = window.window(3_000);
+		assertEquals(1, current.getTotal());
+		assertEquals("new", current.top(1).get(0).key());
+	}
+
+	@Test
+	void snapshotRoundTripKeepsCounts() {
+		SlidingTopK window = new SlidingTopK(10, 1_000, 3);
+		window.offer("a", 100);
+		window.offer("a", 1_100);
+		window.offer("b", 1_200);
+
+		SlidingTopK restored = new SlidingTopK(10, 1_000, 3);
+		restored.restore(window.snapshot(1_500), 1_500);
+
+		SpaceSavingSketch merged = restored.window(1_500);
+		assertEquals(3, merged.getTotal());
+		assertEquals(2, merged.top(1).get(0).count());
+	}
+
+	@Test
+	void restoreKeepsHitsRecordedBeforeIt() {
+		SlidingTopK previous = new SlidingTopK(10, 1_000, 3);
+		previous.offer("a", 100);
+		previous.offer("a", 1_100);
+
+		SlidingTopK live = new SlidingTopK(10, 1_000, 3);
+		// Same pane as the snapshot's newest one, and a pane the snapshot does not have
+		live.offer("b", 1_300);
+		live.offer("a", 2_100);
+		live.restore(previous.snapshot(1_500), 2_200);
+
+		SpaceSavingSketch merged = live.window(2_200);
+		assertEquals(4, merged.getTotal());
+		assertEquals("a", merged.top(1).get(0).key());
+		assertEquals(3, merged.top(1).get(0).count());
+		assertEquals(4, live.snapshot(2_200).stream().mapToLong(SlidingTopK.PaneState::total).sum());
+		assertEquals(3, live.snapshot(2_200).size());
+	}
+}
@@ -0,0 +1,61 @@
+package com.aman.ddas.server.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingSketchTests {
+
+	@Test
+	void heavyItemsAreFoundWithinTheErrorBound() {
+		SpaceSavingSketch sketch = new SpaceSavingSketch(20);
+		Random random = new Random(7);
+		for (int i = 0; i < 10_000; i++) {
+			// 30% "hot-a", 20% "hot-b", the rest spread over 1000 cold keys
+			double r = random.nextDouble();
+			sketch.offer(r < 0.3 ? "hot-a" : r < 0.5 ? "hot-b" : "cold-" + random.nextInt(1000));
+		}
+
+		List<SpaceSavingSketch.Entry> top = sketch.top(2);
+		assertEquals("hot-a", top.get(0).key());
+		assertEquals("hot-b", top.get(1).key());
+		assertEquals(10_000, sketch.getTotal());
+		for (SpaceSavingSketch.Entry entry : top) {
+			assertTrue(entry.error() <= sketch.maxError());
+		}
+	}
+
+	@Test
+	void mergingFullSketchesKeepsTheBounds() {
+		SpaceSavingSketch left = new SpaceSavingSketch(10);
+		SpaceSavingSketch right = new SpaceSavingSketch(10);
+		Map<String, Long> trueCounts = new HashMap<>();
+		Random random = new Random(11);
+		for (int i = 0; i < 4_000; i++) {
+			double r = random.nextDouble();
+			String key = r < 0.25 ? "hot" : "cold-" + random.nextInt(200);
+			(i % 2 == 0 ? left : right).offer(key);
+			trueCounts.merge(key, 1L, Long::sum);
+		}
+		assertEquals(10, left.entries().size());
+		assertEquals(10, right.entries().size());
+
+		left.merge(right);
+
+		assertEquals(4_000, left.getTotal());
+		assertTrue(left.entries().size() <= 10);
+		assertEquals("hot", left.top(1).get(0).key());
+		for (SpaceSavingSketch.Entry entry : left.entries()) {
+			long trueCount = trueCounts.get(entry.key());
+			assertTrue(entry.count() >= trueCount, entry.key() + " under-counted");
+			assertTrue(entry.guaranteedCount() <= trueCount, entry.key() + " lower bound too high");
+			assertTrue(entry.error() <= left.maxError(), entry.key() + " error above maxError");
+		}
+	}
+}